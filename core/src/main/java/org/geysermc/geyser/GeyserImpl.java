@@ -67,21 +67,31 @@ import org.geysermc.geyser.entity.EntityDefinitions;
 import org.geysermc.geyser.erosion.UnixSocketClientListener;
 import org.geysermc.geyser.event.GeyserEventBus;
 import org.geysermc.geyser.extension.GeyserExtensionManager;
+import org.geysermc.geyser.level.MapImageCache;
 import org.geysermc.geyser.level.WorldManager;
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
+import org.geysermc.geyser.level.chunk.SharedChunkSectionCache;
+import org.geysermc.geyser.network.LoginCryptoExecutor;
 import org.geysermc.geyser.network.netty.GeyserServer;
+import org.geysermc.geyser.pack.ResourcePackChunkProvider;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.Registries;
 import org.geysermc.geyser.registry.provider.ProviderSupplier;
 import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.JoinPacketCache;
 import org.geysermc.geyser.session.PendingMicrosoftAuthentication;
 import org.geysermc.geyser.session.SessionManager;
+import org.geysermc.geyser.session.UpstreamPacketCoalescer;
 import org.geysermc.geyser.skin.FloodgateSkinUploader;
 import org.geysermc.geyser.skin.ProvidedSkins;
 import org.geysermc.geyser.skin.SkinProvider;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.text.MinecraftLocale;
+import org.geysermc.geyser.translator.inventory.item.ItemTranslationCache;
+import org.geysermc.geyser.translator.protocol.PacketTranslationStats;
 import org.geysermc.geyser.translator.text.MessageTranslator;
+import org.geysermc.geyser.translator.text.RenderedMessageCache;
 import org.geysermc.geyser.util.*;
 
 import java.io.File;
@@ -190,12 +200,16 @@ public class GeyserImpl implements GeyserApi {
         logger.info("******************************************");
 
         /* Initialize registries */
+        long registryStart = System.currentTimeMillis();
         Registries.init();
         BlockRegistries.init();
+        long translatorStart = System.currentTimeMillis();
 
         /* Initialize translators */
         EntityDefinitions.init();
         MessageTranslator.init();
+        logger.debug("Initialized registries in " + (translatorStart - registryStart) + "ms and translators in "
+                + (System.currentTimeMillis() - translatorStart) + "ms");
 
         // Download the latest asset list and cache it
         AssetUtils.generateAssetCache().whenComplete((aVoid, ex) -> {
@@ -241,6 +255,17 @@ public class GeyserImpl implements GeyserApi {
 
         ScoreboardUpdater.init();
 
+        SharedChunkSectionCache.init(config.getSharedChunkSectionCacheSize());
+        ChunkTranslationPipeline.init(config.getChunkTranslationThreads());
+        UpstreamPacketCoalescer.init(config.isCoalesceUpstreamPackets());
+        ResourcePackChunkProvider.init(config.isMapResourcePacks());
+        RenderedMessageCache.init(config.getRenderedMessageCacheSize());
+        LoginCryptoExecutor.init(config.getLoginCryptoThreads(), config.getMaxPendingLogins());
+        JoinPacketCache.init(config.isCacheJoinPackets());
+        MapImageCache.init(config.getMapImageCacheSize());
+        ItemTranslationCache.init(config.getItemTranslationCacheSize());
+        PacketTranslationStats.init(config.isPacketTranslationStats(), config.getSlowPacketTranslationMillis());
+
         SkinProvider.registerCacheImageTask(this);
 
         Registries.RESOURCE_PACKS.load();
@@ -400,7 +425,7 @@ public class GeyserImpl implements GeyserApi {
             metrics.addCustomChart(new Metrics.SimplePie("version", () -> GeyserImpl.VERSION));
             metrics.addCustomChart(new Metrics.AdvancedPie("playerPlatform", () -> {
                 Map<String, Integer> valueMap = new HashMap<>();
-                for (GeyserSession session : sessionManager.getAllSessions()) {
+                for (GeyserSession session : sessionManager.allSessionsView()) {
                     if (session == null) continue;
                     if (session.getClientData() == null) continue;
                     String os = session.getClientData().getDeviceOs().toString();
@@ -414,7 +439,7 @@ public class GeyserImpl implements GeyserApi {
             }));
             metrics.addCustomChart(new Metrics.AdvancedPie("playerVersion", () -> {
                 Map<String, Integer> valueMap = new HashMap<>();
-                for (GeyserSession session : sessionManager.getAllSessions()) {
+                for (GeyserSession session : sessionManager.allSessionsView()) {
                     if (session == null) continue;
                     if (session.getClientData() == null) continue;
                     String version = session.getClientData().getGameVersion();
@@ -540,7 +565,7 @@ public class GeyserImpl implements GeyserApi {
 
     @Override
     public @Nullable GeyserSession connectionByUuid(@NonNull UUID uuid) {
-        return this.sessionManager.getSessions().get(uuid);
+        return this.sessionManager.sessionByJavaUuid(uuid);
     }
 
     @Override
@@ -591,6 +616,9 @@ public class GeyserImpl implements GeyserApi {
 
         scheduledThread.shutdown();
         geyserServer.shutdown();
+        ChunkTranslationPipeline.shutdown();
+        ResourcePackChunkProvider.shutdown();
+        LoginCryptoExecutor.shutdown();
         if (skinUploader != null) {
             skinUploader.close();
         }
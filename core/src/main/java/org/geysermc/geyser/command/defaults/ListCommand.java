@@ -31,7 +31,8 @@ import org.geysermc.geyser.command.GeyserCommandSource;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.text.GeyserLocale;
 
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.StringJoiner;
 
 public class ListCommand extends GeyserCommand {
 
@@ -45,9 +46,14 @@ public class ListCommand extends GeyserCommand {
 
     @Override
     public void execute(GeyserSession session, GeyserCommandSource sender, String[] args) {
+        // The count and the names must come from the same sessions
+        List<GeyserSession> sessions = geyser.getSessionManager().getAllSessions();
+        StringJoiner usernames = new StringJoiner(" ");
+        for (GeyserSession other : sessions) {
+            usernames.add(other.bedrockUsername());
+        }
         String message = GeyserLocale.getPlayerLocaleString("geyser.commands.list.message", sender.locale(),
-                geyser.getSessionManager().size(),
-                geyser.getSessionManager().getAllSessions().stream().map(GeyserSession::bedrockUsername).collect(Collectors.joining(" ")));
+                sessions.size(), usernames.toString());
 
         sender.sendMessage(message);
     }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.command.defaults;
+
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.command.GeyserCommand;
+import org.geysermc.geyser.command.GeyserCommandSource;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.text.ChatColor;
+import org.geysermc.geyser.translator.protocol.PacketTranslationStats;
+
+import java.util.List;
+
+public class PacketStatsCommand extends GeyserCommand {
+
+    private static final int SHOWN_ENTRIES = 10;
+
+    private final GeyserImpl geyser;
+
+    public PacketStatsCommand(GeyserImpl geyser, String name, String description, String permission) {
+        super(name, description, permission);
+
+        this.geyser = geyser;
+    }
+
+    @Override
+    public void execute(GeyserSession session, GeyserCommandSource sender, String[] args) {
+        if (!PacketTranslationStats.isEnabled()) {
+            sender.sendMessage(ChatColor.RED + "Packet translation statistics are disabled. Enable packet-translation-stats in the config to use this command.");
+            return;
+        }
+
+        PacketTranslationStats stats = PacketTranslationStats.global();
+        String source = "all sessions";
+        if (args.length > 0) {
+            GeyserSession target = geyser.getSessionManager().sessionByBedrockUsername(args[0]);
+            if (target == null) {
+                target = geyser.getSessionManager().sessionByJavaUsername(args[0]);
+            }
+            if (target == null || target.getPacketTranslationStats() == null) {
+                sender.sendMessage(ChatColor.RED + "No player named " + args[0] + " is online.");
+                return;
+            }
+            stats = target.getPacketTranslationStats();
+            source = target.bedrockUsername();
+        }
+
+        List<PacketTranslationStats.Entry> entries = stats.top(SHOWN_ENTRIES);
+        if (entries.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "No packets have been translated yet for " + source + ".");
+            return;
+        }
+
+        sender.sendMessage(ChatColor.YELLOW + "Slowest packet translators for " + source + " (count, total, avg, p50, p99, max):");
+        // Chunks translated on worker threads are listed a second time, for the time spent off of the event loop
+        for (PacketTranslationStats.Entry entry : entries) {
+            String packet = entry.worker() ? entry.packet() + " (worker)" : entry.packet();
+            sender.sendMessage(String.format("%s%s%s: %d, %.1fms, %.3fms, %.3fms, %.3fms, %.3fms", ChatColor.AQUA, packet, ChatColor.RESET,
+                    entry.count(), entry.totalMillis(), entry.averageMillis(), entry.p50Millis(), entry.p99Millis(), entry.maxMillis()));
+        }
+    }
+
+    @Override
+    public boolean isSuggestedOpOnly() {
+        return true;
+    }
+}
@@ -166,6 +166,50 @@ public interface GeyserConfiguration {
 
     int getScoreboardPacketThreshold();
 
+    int getSharedChunkSectionCacheSize();
+
+    int getChunkTranslationThreads();
+
+    boolean isCompactChunkCache();
+
+    boolean isCoalesceUpstreamPackets();
+
+    boolean isMapResourcePacks();
+
+    int getRenderedMessageCacheSize();
+
+    int getLoginCryptoThreads();
+
+    int getMaxPendingLogins();
+
+    boolean isCacheJoinPackets();
+
+    int getPingCacheMillis();
+
+    int getPingRateLimit();
+
+    boolean isThrottleEntityMovement();
+
+    int getEntityMovementNearDistance();
+
+    int getEntityMovementFarDistance();
+
+    int getMapImageCacheSize();
+
+    boolean isPacketTranslationStats();
+
+    int getSlowPacketTranslationMillis();
+
+    int getBulkBlockUpdateThreshold();
+
+    boolean isStreamTabListSkins();
+
+    int getSkinStreamBytesPerSecond();
+
+    int getItemTranslationCacheSize();
+
+    double getInventoryDiffRatio();
+
     // if u have offline mode enabled pls be safe
     boolean isEnableProxyConnections();
 
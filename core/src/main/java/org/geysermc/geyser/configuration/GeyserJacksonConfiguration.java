@@ -304,6 +304,72 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("scoreboard-packet-threshold")
     private int scoreboardPacketThreshold = 10;
 
+    @JsonProperty("shared-chunk-section-cache-size")
+    private int sharedChunkSectionCacheSize = 0;
+
+    @JsonProperty("chunk-translation-threads")
+    private int chunkTranslationThreads = 0;
+
+    @JsonProperty("compact-chunk-cache")
+    private boolean compactChunkCache = false;
+
+    @JsonProperty("coalesce-upstream-packets")
+    private boolean coalesceUpstreamPackets = false;
+
+    @JsonProperty("map-resource-packs")
+    private boolean mapResourcePacks = false;
+
+    @JsonProperty("rendered-message-cache-size")
+    private int renderedMessageCacheSize = 0;
+
+    @JsonProperty("login-crypto-threads")
+    private int loginCryptoThreads = 0;
+
+    @JsonProperty("max-pending-logins")
+    private int maxPendingLogins = 128;
+
+    @JsonProperty("cache-join-packets")
+    private boolean cacheJoinPackets = false;
+
+    @JsonProperty("ping-cache-millis")
+    private int pingCacheMillis = 0;
+
+    @JsonProperty("ping-rate-limit")
+    private int pingRateLimit = 0;
+
+    @JsonProperty("throttle-entity-movement")
+    private boolean throttleEntityMovement = false;
+
+    @JsonProperty("entity-movement-near-distance")
+    private int entityMovementNearDistance = 32;
+
+    @JsonProperty("entity-movement-far-distance")
+    private int entityMovementFarDistance = 64;
+
+    @JsonProperty("map-image-cache-size")
+    private int mapImageCacheSize = 0;
+
+    @JsonProperty("packet-translation-stats")
+    private boolean packetTranslationStats = false;
+
+    @JsonProperty("slow-packet-translation-millis")
+    private int slowPacketTranslationMillis = 0;
+
+    @JsonProperty("bulk-block-update-threshold")
+    private int bulkBlockUpdateThreshold = 0;
+
+    @JsonProperty("stream-tab-list-skins")
+    private boolean streamTabListSkins = false;
+
+    @JsonProperty("skin-stream-bytes-per-second")
+    private int skinStreamBytesPerSecond = 262144;
+
+    @JsonProperty("item-translation-cache-size")
+    private int itemTranslationCacheSize = 0;
+
+    @JsonProperty("inventory-diff-ratio")
+    private double inventoryDiffRatio = 0;
+
     @JsonProperty("enable-proxy-connections")
     private boolean enableProxyConnections = false;
 
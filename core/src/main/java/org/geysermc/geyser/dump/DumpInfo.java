@@ -28,12 +28,14 @@ package org.geysermc.geyser.dump;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.CacheStats;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.Getter;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.geysermc.floodgate.util.DeviceOs;
 import org.geysermc.floodgate.util.FloodgateInfoHolder;
@@ -41,9 +43,28 @@ import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.api.GeyserApi;
 import org.geysermc.geyser.api.extension.Extension;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.entity.EntityMovementThrottler;
+import org.geysermc.geyser.erosion.ErosionBlockCache;
+import org.geysermc.geyser.level.MapImageCache;
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
+import org.geysermc.geyser.level.chunk.CompactChunkSection;
+import org.geysermc.geyser.level.chunk.SharedChunkSectionCache;
 import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.network.LoginCryptoExecutor;
+import org.geysermc.geyser.network.netty.PongCache;
+import org.geysermc.geyser.network.netty.handler.RakPingHandler;
+import org.geysermc.geyser.pack.ResourcePackChunkProvider;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.JoinPacketCache;
+import org.geysermc.geyser.session.UpstreamPacketCoalescer;
+import org.geysermc.geyser.session.cache.ChunkCache;
+import org.geysermc.geyser.skin.SkinManager;
+import org.geysermc.geyser.skin.SkinStreamer;
 import org.geysermc.geyser.text.AsteriskSerializer;
+import org.geysermc.geyser.translator.inventory.item.ItemTranslationCache;
+import org.geysermc.geyser.translator.protocol.PacketTranslationStats;
+import org.geysermc.geyser.translator.protocol.java.inventory.JavaContainerSetContentTranslator;
+import org.geysermc.geyser.translator.text.RenderedMessageCache;
 import org.geysermc.geyser.util.CpuUtils;
 import org.geysermc.geyser.util.FileUtils;
 import org.geysermc.geyser.util.WebUtils;
@@ -84,6 +105,7 @@ public class DumpInfo {
     private final BootstrapDumpInfo bootstrapInfo;
     private final FlagsInfo flagsInfo;
     private final List<ExtensionInfo> extensionInfo;
+    private final PerformanceInfo performanceInfo;
 
     public DumpInfo(boolean addLog) {
         this.versionInfo = new VersionInfo();
@@ -124,7 +146,7 @@ public class DumpInfo {
         }
 
         this.userPlatforms = new Object2IntOpenHashMap<>();
-        for (GeyserSession session : GeyserImpl.getInstance().getSessionManager().getAllSessions()) {
+        for (GeyserSession session : GeyserImpl.getInstance().getSessionManager().allSessionsView()) {
             DeviceOs device = session.getClientData().getDeviceOs();
             userPlatforms.put(device, userPlatforms.getOrDefault(device, 0) + 1);
         }
@@ -137,6 +159,8 @@ public class DumpInfo {
         for (Extension extension : GeyserApi.api().extensionManager().extensions()) {
             this.extensionInfo.add(new ExtensionInfo(extension.isEnabled(), extension.name(), extension.description().version(), extension.description().apiVersion(), extension.description().main(), extension.description().authors()));
         }
+
+        this.performanceInfo = new PerformanceInfo();
     }
 
     @Getter
@@ -278,6 +302,171 @@ public class DumpInfo {
         }
     }
 
+    /**
+     * Statistics of Geyser's internal caches and pipelines, to help find out where time and memory is spent.
+     */
+    @Getter
+    public static class PerformanceInfo {
+        private final CacheInfo sharedChunkSectionCache;
+        private final ChunkTranslationInfo chunkTranslation;
+        private final ChunkCacheInfo chunkCache;
+        private final PacketCoalescingInfo packetCoalescing;
+        private final ResourcePackServingInfo resourcePackServing;
+        private final CacheInfo renderedMessageCache;
+        private final LoginCryptoInfo loginCrypto;
+        private final JoinPacketCacheInfo joinPacketCache;
+        private final PingInfo pings;
+        private final EntityMovementInfo entityMovement;
+        private final ErosionLookupInfo erosionLookups;
+        private final CacheInfo mapImageCache;
+        private final long mapImageCacheBytes;
+        private final List<PacketTranslationStats.Entry> slowestPacketTranslators;
+        private final SkinStreamingInfo skinStreaming;
+        private final CacheInfo itemTranslationCache;
+        private final InventoryDiffInfo inventoryDiffing;
+
+        PerformanceInfo() {
+            this.sharedChunkSectionCache = CacheInfo.of(SharedChunkSectionCache.size(), SharedChunkSectionCache.stats());
+            this.chunkTranslation = new ChunkTranslationInfo(ChunkTranslationPipeline.isEnabled(), ChunkTranslationPipeline.queueDepth(),
+                    ChunkTranslationPipeline.translatedChunks(), ChunkTranslationPipeline.averageTranslationMillis(),
+                    ChunkTranslationPipeline.maxTranslationMillis());
+            this.chunkCache = ChunkCacheInfo.create();
+            this.packetCoalescing = new PacketCoalescingInfo(UpstreamPacketCoalescer.isEnabled(), UpstreamPacketCoalescer.coalescedPackets(),
+                    UpstreamPacketCoalescer.bytesSaved(), UpstreamPacketCoalescer.batchesPerSecond());
+            this.resourcePackServing = new ResourcePackServingInfo(ResourcePackChunkProvider.isMapped(), ResourcePackChunkProvider.mappedPacks(),
+                    ResourcePackChunkProvider.openFiles(), ResourcePackChunkProvider.chunksServed(), ResourcePackChunkProvider.bytesServed(),
+                    ResourcePackChunkProvider.downloads(), ResourcePackChunkProvider.averageDownloadMillis(), ResourcePackChunkProvider.maxDownloadMillis());
+            this.renderedMessageCache = CacheInfo.of(RenderedMessageCache.size(), RenderedMessageCache.stats());
+            this.loginCrypto = new LoginCryptoInfo(LoginCryptoExecutor.isEnabled(), LoginCryptoExecutor.queueDepth(), LoginCryptoExecutor.handshakes(),
+                    LoginCryptoExecutor.rejectedLogins(), LoginCryptoExecutor.averageQueueMillis(), LoginCryptoExecutor.maxQueueMillis(),
+                    LoginCryptoExecutor.averageHandshakeMillis(), LoginCryptoExecutor.maxHandshakeMillis());
+            this.joinPacketCache = new JoinPacketCacheInfo(JoinPacketCache.isEnabled(), JoinPacketCache.size(),
+                    JoinPacketCache.sizeInBytes(), JoinPacketCache.hits());
+            this.pings = new PingInfo(RakPingHandler.servedPings(), RakPingHandler.droppedPings(), PongCache.refreshes(),
+                    PongCache.averageRefreshMillis(), PongCache.maxRefreshMillis());
+            this.entityMovement = EntityMovementInfo.create();
+            this.erosionLookups = new ErosionLookupInfo(ErosionBlockCache.hits(), ErosionBlockCache.misses(), ErosionBlockCache.lookups(),
+                    ErosionBlockCache.averageLookupMillis(), ErosionBlockCache.maxLookupMillis());
+            this.mapImageCache = CacheInfo.of(MapImageCache.size(), MapImageCache.stats());
+            this.mapImageCacheBytes = MapImageCache.sizeInBytes();
+            this.slowestPacketTranslators = PacketTranslationStats.isEnabled() ? PacketTranslationStats.global().top(20) : null;
+            this.skinStreaming = SkinStreamingInfo.create();
+            this.itemTranslationCache = CacheInfo.of(ItemTranslationCache.size(), ItemTranslationCache.stats());
+            this.inventoryDiffing = new InventoryDiffInfo(GeyserImpl.getInstance().getConfig().getInventoryDiffRatio() > 0,
+                    JavaContainerSetContentTranslator.translatedSlots(), JavaContainerSetContentTranslator.skippedSlots());
+        }
+    }
+
+    /**
+     * Memory estimates are only available for the compact chunk cache.
+     */
+    public record ChunkCacheInfo(boolean compact, long cachedColumns, long totalBytes, long averageSessionBytes, long maxSessionBytes, int sharedSections) {
+        static ChunkCacheInfo create() {
+            List<GeyserSession> sessions = GeyserImpl.getInstance().getSessionManager().getAllSessions();
+            long columns = 0;
+            long totalBytes = 0;
+            long maxSessionBytes = 0;
+            for (GeyserSession session : sessions) {
+                ChunkCache chunkCache = session.getChunkCache();
+                columns += chunkCache.size();
+                totalBytes += chunkCache.getCompactBytes();
+                maxSessionBytes = Math.max(maxSessionBytes, chunkCache.getCompactBytes());
+            }
+            return new ChunkCacheInfo(GeyserImpl.getInstance().getConfig().isCompactChunkCache(), columns, totalBytes,
+                    sessions.isEmpty() ? 0 : totalBytes / sessions.size(), maxSessionBytes, CompactChunkSection.sharedSections());
+        }
+    }
+
+    public record ChunkTranslationInfo(boolean enabled, int queueDepth, long translatedChunks, double averageTranslationMillis, double maxTranslationMillis) {
+    }
+
+    public record PacketCoalescingInfo(boolean enabled, long coalescedPackets, long estimatedBytesSaved, double batchesPerSecond) {
+    }
+
+    public record ResourcePackServingInfo(boolean mapped, int mappedPacks, int openFiles, long chunksServed, long bytesServed,
+                                          long downloads, double averageDownloadMillis, double maxDownloadMillis) {
+    }
+
+    public record LoginCryptoInfo(boolean enabled, int queueDepth, long handshakes, long rejectedLogins, double averageQueueMillis,
+                                  double maxQueueMillis, double averageHandshakeMillis, double maxHandshakeMillis) {
+    }
+
+    public record JoinPacketCacheInfo(boolean enabled, int cachedPackets, long totalBytes, long hits) {
+    }
+
+    /**
+     * Totals of all sessions that are currently online.
+     */
+    public record EntityMovementInfo(boolean enabled, long receivedMoves, long sentMoves, long suppressedMoves) {
+        static EntityMovementInfo create() {
+            long received = 0;
+            long sent = 0;
+            long suppressed = 0;
+            for (GeyserSession session : GeyserImpl.getInstance().getSessionManager().allSessionsView()) {
+                EntityMovementThrottler throttler = session.getEntityMovementThrottler();
+                if (throttler != null) {
+                    received += throttler.receivedMoves();
+                    sent += throttler.sentMoves();
+                    suppressed += throttler.suppressedMoves();
+                }
+            }
+            return new EntityMovementInfo(GeyserImpl.getInstance().getConfig().isThrottleEntityMovement(), received, sent, suppressed);
+        }
+    }
+
+    public record SkinStreamingInfo(boolean enabled, long sharedSkins, long placeholders, int pendingSkins, long averageSkinBytes,
+                                    long maxSkinBytes, long averageJoinToPlayableMillis, long maxJoinToPlayableMillis) {
+        static SkinStreamingInfo create() {
+            long placeholders = 0;
+            int pending = 0;
+            long streamers = 0;
+            long totalBytes = 0;
+            long maxBytes = 0;
+            long playable = 0;
+            long totalPlayableMillis = 0;
+            long maxPlayableMillis = 0;
+            for (GeyserSession session : GeyserImpl.getInstance().getSessionManager().allSessionsView()) {
+                SkinStreamer streamer = session.getSkinStreamer();
+                if (streamer == null) {
+                    continue;
+                }
+                streamers++;
+                placeholders += streamer.placeholders();
+                pending += streamer.pendingSkins();
+                totalBytes += streamer.skinBytes();
+                maxBytes = Math.max(maxBytes, streamer.skinBytes());
+                if (streamer.joinToPlayableMillis() != -1) {
+                    playable++;
+                    totalPlayableMillis += streamer.joinToPlayableMillis();
+                    maxPlayableMillis = Math.max(maxPlayableMillis, streamer.joinToPlayableMillis());
+                }
+            }
+            return new SkinStreamingInfo(GeyserImpl.getInstance().getConfig().isStreamTabListSkins(), SkinManager.sharedSkins(), placeholders, pending,
+                    streamers == 0 ? 0 : totalBytes / streamers, maxBytes, playable == 0 ? 0 : totalPlayableMillis / playable, maxPlayableMillis);
+        }
+    }
+
+    public record InventoryDiffInfo(boolean enabled, long translatedSlots, long skippedSlots) {
+    }
+
+    public record ErosionLookupInfo(long cacheHits, long cacheMisses, long lookups, double averageLookupMillis, double maxLookupMillis) {
+    }
+
+    public record PingInfo(long servedPings, long droppedPings, long pongRefreshes, double averageRefreshMillis, double maxRefreshMillis) {
+    }
+
+    public record CacheInfo(long size, long hitCount, long missCount, long evictionCount, double hitRate) {
+        /**
+         * @return null if the cache is disabled
+         */
+        public static @Nullable CacheInfo of(long size, @Nullable CacheStats stats) {
+            if (stats == null) {
+                return null;
+            }
+            return new CacheInfo(size, stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+        }
+    }
+
     public record ExtensionInfo(boolean enabled, String name, String version, String apiVersion, String main, List<String> authors) {
     }
 
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.math.vector.Vector3f;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityAbsolutePacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityDeltaPacket;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.entity.type.Entity;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Holds back entity movement until the next session tick, so every entity is moved at most once per tick.
+ * Entities further away from the player are moved less often - every second tick beyond the near distance,
+ * and every fourth tick beyond the far distance.
+ * <p>
+ * The last movement of an entity is always sent eventually, so entities come to rest in the right position.
+ * Movement that is sent without going through the throttler must {@link #flush(Entity)} the entity first, so the
+ * held back movement does not arrive after it.
+ * <p>
+ * Every method must be called from the session's event loop.
+ */
+public final class EntityMovementThrottler {
+    private final Supplier<? extends Entity> playerEntity;
+    private final Consumer<BedrockPacket> sender;
+    private final float nearDistanceSquared;
+    private final float farDistanceSquared;
+
+    private final Long2ObjectMap<PendingMove> pending = new Long2ObjectLinkedOpenHashMap<>();
+    private int ticks = 0;
+
+    private long receivedMoves = 0;
+    private long sentMoves = 0;
+    private long suppressedMoves = 0;
+
+    EntityMovementThrottler(Supplier<? extends Entity> playerEntity, Consumer<BedrockPacket> sender, int nearDistance, int farDistance) {
+        this.playerEntity = playerEntity;
+        this.sender = sender;
+        this.nearDistanceSquared = nearDistance * nearDistance;
+        this.farDistanceSquared = farDistance * farDistance;
+    }
+
+    /**
+     * @return a new throttler for this session, or null if entity movement should be sent straight away
+     */
+    public static @Nullable EntityMovementThrottler create(GeyserSession session) {
+        GeyserConfiguration config = GeyserImpl.getInstance().getConfig();
+        if (!config.isThrottleEntityMovement()) {
+            return null;
+        }
+        return new EntityMovementThrottler(session::getPlayerEntity, session::sendUpstreamPacket, config.getEntityMovementNearDistance(), config.getEntityMovementFarDistance());
+    }
+
+    /**
+     * @return false if the packet must be sent by the caller
+     */
+    public boolean queue(Entity entity, MoveEntityDeltaPacket packet) {
+        receivedMoves++;
+        if (isExempt(entity)) {
+            // The entity might have become exempt while a move was held back
+            flush(entity);
+            sentMoves++;
+            return false;
+        }
+
+        PendingMove move = pending.get(entity.getGeyserId());
+        if (move == null) {
+            pending.put(entity.getGeyserId(), new PendingMove(entity, packet));
+            return true;
+        }
+        suppressedMoves++;
+
+        // Delta packets hold absolute values, so the newest value of every field wins
+        Set<MoveEntityDeltaPacket.Flag> flags = packet.getFlags();
+        if (move.packet instanceof MoveEntityAbsolutePacket absolute) {
+            Vector3f position = absolute.getPosition();
+            Vector3f rotation = absolute.getRotation();
+            absolute.setPosition(Vector3f.from(
+                    flags.contains(MoveEntityDeltaPacket.Flag.HAS_X) ? packet.getX() : position.getX(),
+                    flags.contains(MoveEntityDeltaPacket.Flag.HAS_Y) ? packet.getY() : position.getY(),
+                    flags.contains(MoveEntityDeltaPacket.Flag.HAS_Z) ? packet.getZ() : position.getZ()));
+            absolute.setRotation(Vector3f.from(
+                    flags.contains(MoveEntityDeltaPacket.Flag.HAS_PITCH) ? packet.getPitch() : rotation.getX(),
+                    flags.contains(MoveEntityDeltaPacket.Flag.HAS_YAW) ? packet.getYaw() : rotation.getY(),
+                    flags.contains(MoveEntityDeltaPacket.Flag.HAS_HEAD_YAW) ? packet.getHeadYaw() : rotation.getZ()));
+            absolute.setOnGround(flags.contains(MoveEntityDeltaPacket.Flag.ON_GROUND));
+            return true;
+        }
+
+        MoveEntityDeltaPacket delta = (MoveEntityDeltaPacket) move.packet;
+        Set<MoveEntityDeltaPacket.Flag> pendingFlags = delta.getFlags();
+        if (flags.contains(MoveEntityDeltaPacket.Flag.HAS_X)) {
+            delta.setX(packet.getX());
+            pendingFlags.add(MoveEntityDeltaPacket.Flag.HAS_X);
+        }
+        if (flags.contains(MoveEntityDeltaPacket.Flag.HAS_Y)) {
+            delta.setY(packet.getY());
+            pendingFlags.add(MoveEntityDeltaPacket.Flag.HAS_Y);
+        }
+        if (flags.contains(MoveEntityDeltaPacket.Flag.HAS_Z)) {
+            delta.setZ(packet.getZ());
+            pendingFlags.add(MoveEntityDeltaPacket.Flag.HAS_Z);
+        }
+        if (flags.contains(MoveEntityDeltaPacket.Flag.HAS_PITCH)) {
+            delta.setPitch(packet.getPitch());
+            pendingFlags.add(MoveEntityDeltaPacket.Flag.HAS_PITCH);
+        }
+        if (flags.contains(MoveEntityDeltaPacket.Flag.HAS_YAW)) {
+            delta.setYaw(packet.getYaw());
+            pendingFlags.add(MoveEntityDeltaPacket.Flag.HAS_YAW);
+        }
+        if (flags.contains(MoveEntityDeltaPacket.Flag.HAS_HEAD_YAW)) {
+            delta.setHeadYaw(packet.getHeadYaw());
+            pendingFlags.add(MoveEntityDeltaPacket.Flag.HAS_HEAD_YAW);
+        }
+        if (flags.contains(MoveEntityDeltaPacket.Flag.ON_GROUND)) {
+            pendingFlags.add(MoveEntityDeltaPacket.Flag.ON_GROUND);
+        } else {
+            pendingFlags.remove(MoveEntityDeltaPacket.Flag.ON_GROUND);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the packet must be sent by the caller
+     */
+    public boolean queue(Entity entity, MoveEntityAbsolutePacket packet) {
+        receivedMoves++;
+        if (isExempt(entity)) {
+            // The entity might have become exempt while a move was held back
+            flush(entity);
+            sentMoves++;
+            return false;
+        }
+
+        PendingMove move = pending.get(entity.getGeyserId());
+        if (move == null) {
+            pending.put(entity.getGeyserId(), new PendingMove(entity, packet));
+            return true;
+        }
+        suppressedMoves++;
+
+        // An absolute move replaces everything before it, but a teleport must stay a teleport
+        if (move.packet instanceof MoveEntityAbsolutePacket absolute && absolute.isTeleported()) {
+            packet.setTeleported(true);
+        }
+        move.packet = packet;
+        return true;
+    }
+
+    /**
+     * Sends the held back movement of an entity now.
+     */
+    public void flush(Entity entity) {
+        PendingMove move = pending.remove(entity.getGeyserId());
+        if (move != null) {
+            sentMoves++;
+            sender.accept(move.packet);
+        }
+    }
+
+    /**
+     * Forgets the movement of an entity that is being removed.
+     */
+    public void remove(Entity entity) {
+        if (pending.remove(entity.getGeyserId()) != null) {
+            suppressedMoves++;
+        }
+    }
+
+    /**
+     * Sends all movement that is due this tick.
+     */
+    public void tick() {
+        ticks++;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Vector3f playerPosition = playerEntity.get().getPosition();
+        Iterator<PendingMove> it = pending.values().iterator();
+        while (it.hasNext()) {
+            PendingMove move = it.next();
+            Entity entity = move.entity;
+            if (!entity.isValid()) {
+                it.remove();
+                suppressedMoves++;
+                continue;
+            }
+
+            float distanceSquared = entity.getPosition().distanceSquared(playerPosition);
+            int interval = distanceSquared < nearDistanceSquared ? 1 : distanceSquared < farDistanceSquared ? 2 : 4;
+            // Spread out far entities across ticks
+            if ((ticks + entity.getGeyserId()) % interval != 0) {
+                continue;
+            }
+
+            it.remove();
+            sentMoves++;
+            sender.accept(move.packet);
+        }
+    }
+
+    /**
+     * Movement of the player's own vehicle is visible straight away, so it is not held back.
+     */
+    private boolean isExempt(Entity entity) {
+        Entity playerEntity = this.playerEntity.get();
+        return entity == playerEntity || entity == playerEntity.getVehicle();
+    }
+
+    public long receivedMoves() {
+        return receivedMoves;
+    }
+
+    public long sentMoves() {
+        return sentMoves;
+    }
+
+    /**
+     * @return the amount of moves that were merged into a later move, or dropped as the entity was removed
+     */
+    public long suppressedMoves() {
+        return suppressedMoves;
+    }
+
+    private static final class PendingMove {
+        private final Entity entity;
+        private BedrockPacket packet;
+
+        private PendingMove(Entity entity, BedrockPacket packet) {
+            this.entity = entity;
+            this.packet = packet;
+        }
+    }
+}
@@ -97,6 +97,7 @@ public class BoatEntity extends Entity {
         moveEntityPacket.setOnGround(isOnGround);
         moveEntityPacket.setTeleported(teleported);
 
+        flushQueuedMovement();
         session.sendUpstreamPacket(moveEntityPacket);
     }
 
@@ -50,6 +50,7 @@ import org.cloudburstmc.protocol.bedrock.packet.RemoveEntityPacket;
 import org.cloudburstmc.protocol.bedrock.packet.SetEntityDataPacket;
 import org.geysermc.geyser.api.entity.type.GeyserEntity;
 import org.geysermc.geyser.entity.EntityDefinition;
+import org.geysermc.geyser.entity.EntityMovementThrottler;
 import org.geysermc.geyser.entity.GeyserDirtyMetadata;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.text.MessageTranslator;
@@ -213,6 +214,11 @@ public class Entity implements GeyserEntity {
             passenger.updateBedrockMetadata();
         }
 
+        EntityMovementThrottler throttler = session.getEntityMovementThrottler();
+        if (throttler != null) {
+            throttler.remove(this);
+        }
+
         RemoveEntityPacket removeEntityPacket = new RemoveEntityPacket();
         removeEntityPacket.setUniqueEntityId(geyserId);
         session.sendUpstreamPacket(removeEntityPacket);
@@ -261,7 +267,10 @@ public class Entity implements GeyserEntity {
         if (isOnGround) {
             moveEntityPacket.getFlags().add(MoveEntityDeltaPacket.Flag.ON_GROUND);
         }
-        session.sendUpstreamPacket(moveEntityPacket);
+        EntityMovementThrottler throttler = session.getEntityMovementThrottler();
+        if (throttler == null || !throttler.queue(this, moveEntityPacket)) {
+            session.sendUpstreamPacket(moveEntityPacket);
+        }
     }
 
     public void moveAbsolute(Vector3f position, float yaw, float pitch, boolean isOnGround, boolean teleported) {
@@ -283,7 +292,21 @@ public class Entity implements GeyserEntity {
         moveEntityPacket.setOnGround(isOnGround);
         moveEntityPacket.setTeleported(teleported);
 
-        session.sendUpstreamPacket(moveEntityPacket);
+        EntityMovementThrottler throttler = session.getEntityMovementThrottler();
+        if (throttler == null || !throttler.queue(this, moveEntityPacket)) {
+            session.sendUpstreamPacket(moveEntityPacket);
+        }
+    }
+
+    /**
+     * Sends the movement of this entity that is being held back, so it does not arrive after a movement packet that is
+     * sent directly.
+     */
+    protected void flushQueuedMovement() {
+        EntityMovementThrottler throttler = session.getEntityMovementThrottler();
+        if (throttler != null) {
+            throttler.flush(this);
+        }
     }
 
     /**
@@ -105,6 +105,7 @@ public class ThrowableEntity extends Entity implements Tickable {
         }
 
         if (!moveEntityDeltaPacket.getFlags().isEmpty()) {
+            flushQueuedMovement();
             session.sendUpstreamPacket(moveEntityDeltaPacket);
         }
     }
@@ -75,6 +75,7 @@ public class SquidEntity extends WaterEntity implements Tickable {
                 packet.setYaw(yaw);
             }
 
+            flushQueuedMovement();
             session.sendUpstreamPacket(packet);
         }
     }
@@ -155,6 +155,7 @@ public class VillagerEntity extends AbstractMerchantEntity {
         moveEntityPacket.setPosition(Vector3f.from(position.getX() + xOffset, position.getY(), position.getZ() + zOffset));
         moveEntityPacket.setOnGround(isOnGround);
         moveEntityPacket.setTeleported(false);
+        flushQueuedMovement();
         session.sendUpstreamPacket(moveEntityPacket);
     }
 
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.erosion;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.erosion.util.BlockPositionIterator;
+import org.geysermc.geyser.util.MathUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the blocks a session has looked up through Erosion, so the same block does not need another round trip
+ * to the backend server. Entries are kept up to date with the block updates the Java server sends, and are dropped
+ * together with their chunk.
+ * <p>
+ * A lookup can be answered after the Java server changed the block it asked for. To not overwrite the newer block with
+ * the looked up one, every change is stamped with a generation, and a lookup result is only stored if its position was
+ * not changed since the generation the lookup started at.
+ */
+public final class ErosionBlockCache {
+    /**
+     * Returned by {@link #get(int, int, int)} if the block is not known.
+     */
+    public static final int MISSING = -1;
+    /**
+     * Once this many blocks are known, the cache starts over.
+     */
+    private static final int MAX_BLOCKS = 1 << 16;
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder LOOKUP_NANOS = new LongAdder();
+    private static final AtomicLong MAX_LOOKUP_NANOS = new AtomicLong();
+
+    private final Long2IntOpenHashMap blocks = new Long2IntOpenHashMap();
+    /**
+     * The generation every position was last changed at by the Java server.
+     */
+    private final Long2LongOpenHashMap changedBlocks = new Long2LongOpenHashMap();
+    /**
+     * The generation every chunk column was last invalidated at.
+     */
+    private final Long2LongOpenHashMap changedChunks = new Long2LongOpenHashMap();
+    /**
+     * Lookups started before this generation are never stored.
+     */
+    private long clearedGeneration = 0;
+    private long generation = 0;
+
+    public ErosionBlockCache() {
+        blocks.defaultReturnValue(MISSING);
+    }
+
+    /**
+     * @return the generation to pass on when storing the result of a lookup that starts now
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * @return the block at this position, or {@link #MISSING} if it has to be looked up
+     */
+    public synchronized int get(int x, int y, int z) {
+        int block = blocks.get(key(x, y, z));
+        if (block == MISSING) {
+            MISSES.increment();
+        } else {
+            HITS.increment();
+        }
+        return block;
+    }
+
+    /**
+     * @return the blocks in the order of the iterator, or null if any of them has to be looked up
+     */
+    public synchronized int @Nullable [] getAll(BlockPositionIterator iter) {
+        int[] result = new int[iter.getMaxIterations()];
+        for (iter.reset(); iter.hasNext(); iter.next()) {
+            int block = blocks.get(key(iter.getX(), iter.getY(), iter.getZ()));
+            if (block == MISSING) {
+                MISSES.increment();
+                return null;
+            }
+            result[iter.getIteration()] = block;
+        }
+        HITS.increment();
+        return result;
+    }
+
+    /**
+     * Stores a block the Java server changed.
+     */
+    public synchronized void put(int x, int y, int z, int block) {
+        ensureCapacity(1);
+        long key = key(x, y, z);
+        blocks.put(key, block);
+        changedBlocks.put(key, ++generation);
+    }
+
+    /**
+     * Stores the result of a lookup, unless the block changed since the lookup started.
+     *
+     * @param generation the {@link #generation()} from before the lookup was sent
+     */
+    public synchronized void putLookup(int x, int y, int z, int block, long generation) {
+        long key = key(x, y, z);
+        if (isUnchanged(key, generation)) {
+            ensureCapacity(1);
+            blocks.put(key, block);
+        }
+    }
+
+    /**
+     * Stores the results of a batch lookup, except for the blocks that changed since the lookup started.
+     *
+     * @param blocks the blocks in the order of the iterator
+     * @param generation the {@link #generation()} from before the lookup was sent
+     */
+    public synchronized void putLookups(BlockPositionIterator iter, int[] blocks, long generation) {
+        ensureCapacity(blocks.length);
+        for (iter.reset(); iter.hasNext(); iter.next()) {
+            long key = key(iter.getX(), iter.getY(), iter.getZ());
+            if (isUnchanged(key, generation)) {
+                this.blocks.put(key, blocks[iter.getIteration()]);
+            }
+        }
+    }
+
+    /**
+     * Forgets all blocks of a chunk column, for example when it is unloaded or sent again.
+     */
+    public synchronized void invalidateChunk(int chunkX, int chunkZ) {
+        changedChunks.put(MathUtils.chunkPositionToLong(chunkX, chunkZ), ++generation);
+        if (blocks.isEmpty()) {
+            return;
+        }
+        blocks.keySet().removeIf((long key) -> (keyX(key) >> 4) == chunkX && (keyZ(key) >> 4) == chunkZ);
+    }
+
+    public synchronized void clear() {
+        blocks.clear();
+        forgetChanges();
+    }
+
+    public synchronized int size() {
+        return blocks.size();
+    }
+
+    private void ensureCapacity(int added) {
+        if (blocks.size() + added > MAX_BLOCKS) {
+            blocks.clear();
+        }
+        if (changedBlocks.size() + changedChunks.size() + added > MAX_BLOCKS) {
+            forgetChanges();
+        }
+    }
+
+    /**
+     * Without the generations of single changes, no lookup that is still outstanding can be stored.
+     */
+    private void forgetChanges() {
+        changedBlocks.clear();
+        changedChunks.clear();
+        clearedGeneration = ++generation;
+    }
+
+    private boolean isUnchanged(long key, long generation) {
+        if (generation < clearedGeneration || changedBlocks.get(key) > generation) {
+            return false;
+        }
+        long chunkPosition = MathUtils.chunkPositionToLong(keyX(key) >> 4, keyZ(key) >> 4);
+        return changedChunks.get(chunkPosition) <= generation;
+    }
+
+    static long key(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int keyX(long key) {
+        return (int) (key >> 38);
+    }
+
+    static int keyZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /**
+     * Records the time a lookup on the backend server took, from sending the request to receiving the block.
+     */
+    public static void recordLookup(long nanos) {
+        LOOKUPS.increment();
+        LOOKUP_NANOS.add(nanos);
+        MAX_LOOKUP_NANOS.accumulateAndGet(nanos, Math::max);
+    }
+
+    public static long hits() {
+        return HITS.sum();
+    }
+
+    public static long misses() {
+        return MISSES.sum();
+    }
+
+    public static long lookups() {
+        return LOOKUPS.sum();
+    }
+
+    public static double averageLookupMillis() {
+        long count = LOOKUPS.sum();
+        return count == 0 ? 0 : LOOKUP_NANOS.sum() / (double) count / 1_000_000D;
+    }
+
+    public static double maxLookupMillis() {
+        return MAX_LOOKUP_NANOS.get() / 1_000_000D;
+    }
+}
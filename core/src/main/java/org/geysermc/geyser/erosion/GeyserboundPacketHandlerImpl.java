@@ -35,15 +35,19 @@ import it.unimi.dsi.fastutil.objects.Object2IntArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import lombok.Getter;
 import lombok.Setter;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.math.vector.Vector3i;
 import org.cloudburstmc.nbt.NbtMap;
 import org.cloudburstmc.protocol.bedrock.data.SoundEvent;
 import org.cloudburstmc.protocol.bedrock.packet.LevelSoundEventPacket;
 import org.geysermc.erosion.packet.ErosionPacketHandler;
 import org.geysermc.erosion.packet.ErosionPacketSender;
+import org.geysermc.erosion.packet.backendbound.BackendboundBatchBlockRequestPacket;
+import org.geysermc.erosion.packet.backendbound.BackendboundBlockRequestPacket;
 import org.geysermc.erosion.packet.backendbound.BackendboundInitializePacket;
 import org.geysermc.erosion.packet.backendbound.BackendboundPacket;
 import org.geysermc.erosion.packet.geyserbound.*;
+import org.geysermc.erosion.util.BlockPositionIterator;
 import org.geysermc.geyser.level.block.BlockStateValues;
 import org.geysermc.geyser.level.physics.Direction;
 import org.geysermc.geyser.network.GameProtocol;
@@ -57,12 +61,15 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacketHandler {
     private final ErosionPacketSender<BackendboundPacket> packetSender;
-    @Setter
-    private CompletableFuture<Integer> pendingLookup = null;
     @Getter
     private final Int2ObjectMap<CompletableFuture<Integer>> asyncPendingLookups = Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>(4));
-    @Setter
-    private CompletableFuture<int[]> pendingBatchLookup = null;
+    /**
+     * Erosion can only answer one batch lookup at a time, as they have no transaction ID.
+     */
+    private final Object batchLookupLock = new Object();
+    private volatile CompletableFuture<int[]> pendingBatchLookup = null;
+    @Getter
+    private final ErosionBlockCache blockCache = new ErosionBlockCache();
     @Setter
     private CompletableFuture<CompoundTag> pickBlockLookup = null;
 
@@ -90,12 +97,6 @@ public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacke
 
     @Override
     public void handleBlockId(GeyserboundBlockIdPacket packet) {
-        if (packet.getTransactionId() == 0) {
-            if (this.pendingLookup != null) {
-                this.pendingLookup.complete(packet.getBlockId());
-                return;
-            }
-        }
         CompletableFuture<Integer> future = this.asyncPendingLookups.remove(packet.getTransactionId());
         if (future != null) {
             future.complete(packet.getBlockId());
@@ -113,11 +114,6 @@ public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacke
             }
         }
         int transactionId = packet.getTransactionId() - 1;
-        if (transactionId == 0) {
-            if (this.pendingLookup != null) {
-                this.pendingLookup.complete(0);
-            }
-        }
         CompletableFuture<Integer> future = this.asyncPendingLookups.remove(transactionId);
         if (future != null) {
             future.complete(BlockStateValues.JAVA_AIR_ID);
@@ -200,6 +196,45 @@ public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacke
         return nextTransactionId.getAndIncrement();
     }
 
+    /**
+     * Looks up a single block on the backend server. Any amount of these lookups can be outstanding at once.
+     */
+    public CompletableFuture<Integer> lookupBlock(int x, int y, int z) {
+        CompletableFuture<Integer> future = new CompletableFuture<>(); // Boxes
+        int transactionId = getNextTransactionId();
+        asyncPendingLookups.put(transactionId, future);
+        long generation = blockCache.generation();
+        long start = System.nanoTime();
+        sendPacket(new BackendboundBlockRequestPacket(transactionId, Vector3i.from(x, y, z)));
+        return future.thenApply(block -> {
+            ErosionBlockCache.recordLookup(System.nanoTime() - start);
+            blockCache.putLookup(x, y, z, block, generation);
+            return block;
+        });
+    }
+
+    /**
+     * Looks up all blocks of the iterator on the backend server, and waits for the result.
+     *
+     * @return the blocks in the order of the iterator, or null if the lookup failed
+     */
+    public int @Nullable [] lookupBlocks(BlockPositionIterator iter) {
+        synchronized (batchLookupLock) {
+            CompletableFuture<int[]> future = new CompletableFuture<>();
+            this.pendingBatchLookup = future;
+            long generation = blockCache.generation();
+            long start = System.nanoTime();
+            sendPacket(new BackendboundBatchBlockRequestPacket(iter));
+            int[] blocks = future.join();
+            this.pendingBatchLookup = null;
+            ErosionBlockCache.recordLookup(System.nanoTime() - start);
+            if (blocks != null) {
+                blockCache.putLookups(iter, blocks, generation);
+            }
+            return blocks;
+        }
+    }
+
     @Override
     public ErosionPacketHandler setChannel(Channel channel) {
         this.packetSender.setChannel(channel);
@@ -41,6 +41,8 @@ import org.geysermc.geyser.registry.type.ItemMapping;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.inventory.item.ItemTranslator;
 
+import java.util.Objects;
+
 @Data
 public class GeyserItemStack {
     public static final GeyserItemStack EMPTY = new GeyserItemStack(Items.AIR_ID, 0, null);
@@ -126,6 +128,13 @@ public class GeyserItemStack {
         return amount <= 0 || javaId == Items.AIR_ID;
     }
 
+    /**
+     * @return true if both stacks hold the same item, amount and NBT. Net IDs are not compared.
+     */
+    public boolean isSameStack(GeyserItemStack other) {
+        return getJavaId() == other.getJavaId() && getAmount() == other.getAmount() && Objects.equals(getNbt(), other.getNbt());
+    }
+
     public GeyserItemStack copy() {
         return copy(amount);
     }
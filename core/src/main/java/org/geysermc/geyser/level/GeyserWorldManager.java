@@ -39,6 +39,7 @@ import org.cloudburstmc.nbt.NbtMapBuilder;
 import org.geysermc.erosion.packet.backendbound.*;
 import org.geysermc.erosion.util.BlockPositionIterator;
 import org.geysermc.erosion.util.LecternUtils;
+import org.geysermc.geyser.erosion.ErosionBlockCache;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.BlockEntityUtils;
 
@@ -54,10 +55,23 @@ public class GeyserWorldManager extends WorldManager {
         if (erosionHandler == null) {
             return session.getChunkCache().getBlockAt(x, y, z);
         }
-        CompletableFuture<Integer> future = new CompletableFuture<>(); // Boxes
-        erosionHandler.setPendingLookup(future);
-        erosionHandler.sendPacket(new BackendboundBlockRequestPacket(0, Vector3i.from(x, y, z)));
-        return future.join();
+        int block = erosionHandler.getBlockCache().get(x, y, z);
+        if (block != ErosionBlockCache.MISSING) {
+            return block;
+        }
+
+        // Blocks next to each other are usually looked up together, so fetch all neighbours in the same round trip
+        BlockPositionIterator iter = BlockPositionIterator.fromMinMax(x - 1, y - 1, z - 1, x + 1, y + 1, z + 1);
+        int[] blocks = erosionHandler.lookupBlocks(iter);
+        if (blocks != null) {
+            for (iter.reset(); iter.hasNext(); iter.next()) {
+                if (iter.getX() == x && iter.getY() == y && iter.getZ() == z) {
+                    return blocks[iter.getIteration()];
+                }
+            }
+        }
+        // A neighbour may be outside the world or in an unloaded chunk
+        return erosionHandler.lookupBlock(x, y, z).join();
     }
 
     @Override
@@ -66,23 +80,24 @@ public class GeyserWorldManager extends WorldManager {
         if (erosionHandler == null) {
             return super.getBlockAtAsync(session, x, y, z);
         }
-        CompletableFuture<Integer> future = new CompletableFuture<>(); // Boxes
-        int transactionId = erosionHandler.getNextTransactionId();
-        erosionHandler.getAsyncPendingLookups().put(transactionId, future);
-        erosionHandler.sendPacket(new BackendboundBlockRequestPacket(transactionId, Vector3i.from(x, y, z)));
-        return future;
+        int block = erosionHandler.getBlockCache().get(x, y, z);
+        if (block != ErosionBlockCache.MISSING) {
+            return CompletableFuture.completedFuture(block);
+        }
+        return erosionHandler.lookupBlock(x, y, z);
     }
 
     @Override
     public int[] getBlocksAt(GeyserSession session, BlockPositionIterator iter) {
         var erosionHandler = session.getErosionHandler().getAsActive();
         if (erosionHandler == null) {
-            return super.getBlocksAt(session, iter);
+            return session.getChunkCache().getBlocksAt(iter);
+        }
+        int[] blocks = erosionHandler.getBlockCache().getAll(iter);
+        if (blocks != null) {
+            return blocks;
         }
-        CompletableFuture<int[]> future = new CompletableFuture<>();
-        erosionHandler.setPendingBatchLookup(future);
-        erosionHandler.sendPacket(new BackendboundBatchBlockRequestPacket(iter));
-        return future.join();
+        return erosionHandler.lookupBlocks(iter);
     }
 
     @Override
@@ -276,6 +276,16 @@ public enum MapColor {
     COLOR_247(79, 88, 67);
 
     private static final MapColor[] VALUES = values();
+    /**
+     * The ARGB color of every possible color ID, including unknown IDs.
+     */
+    private static final int[] ARGB_BY_ID = new int[256];
+
+    static {
+        for (int id = 0; id < ARGB_BY_ID.length; id++) {
+            ARGB_BY_ID[id] = fromId(id).getARGB();
+        }
+    }
 
     private final int value;
 
@@ -297,4 +307,15 @@ public enum MapColor {
     public int getARGB() {
         return value;
     }
+
+    /**
+     * Converts Java map color IDs into ARGB colors, as used by Bedrock.
+     */
+    public static int[] toARGB(byte[] colorIds) {
+        int[] colors = new int[colorIds.length];
+        for (int i = 0; i < colorIds.length; i++) {
+            colors[i] = ARGB_BY_ID[colorIds[i] & 0xFF];
+        }
+        return colors;
+    }
 }
\ No newline at end of file
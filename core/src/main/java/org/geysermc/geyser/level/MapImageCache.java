@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.level;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A size-bounded cache of full map images converted to Bedrock's colors, shared between all sessions.
+ * <p>
+ * Map art servers send the same images to every player. Images are keyed by a hash of their Java color IDs,
+ * so every image is only converted and held in memory once.
+ * <p>
+ * Cached images must never be modified - copy them first.
+ */
+public final class MapImageCache {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    /**
+     * The size of a full 128 by 128 image in bytes.
+     */
+    private static final long IMAGE_BYTES = 128 * 128 * Integer.BYTES;
+
+    private static Cache<HashCode, int[]> CACHE = null;
+
+    /**
+     * (Re)initializes the cache.
+     *
+     * @param maximumSize the maximum amount of images to hold, or 0 to disable the cache
+     */
+    public static void init(int maximumSize) {
+        if (maximumSize <= 0) {
+            CACHE = null;
+            return;
+        }
+        CACHE = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public static boolean isEnabled() {
+        return CACHE != null;
+    }
+
+    /**
+     * @param colorIds the Java color IDs of a full map image
+     * @return the ARGB colors of the image, which may be shared with other sessions
+     */
+    public static int[] toARGB(byte[] colorIds) {
+        Cache<HashCode, int[]> cache = CACHE;
+        if (cache == null) {
+            return MapColor.toARGB(colorIds);
+        }
+        try {
+            return cache.get(HASH_FUNCTION.hashBytes(colorIds), () -> MapColor.toARGB(colorIds));
+        } catch (ExecutionException e) {
+            GeyserImpl.getInstance().getLogger().debug("Could not convert map image: " + e.getCause());
+            return MapColor.toARGB(colorIds);
+        }
+    }
+
+    public static long size() {
+        Cache<HashCode, int[]> cache = CACHE;
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * @return an estimate of the memory used by the cached images in bytes
+     */
+    public static long sizeInBytes() {
+        return size() * IMAGE_BYTES;
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of this cache, or null if the cache is disabled
+     */
+    public static @Nullable CacheStats stats() {
+        Cache<HashCode, int[]> cache = CACHE;
+        return cache == null ? null : cache.stats();
+    }
+
+    private MapImageCache() {
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.protocol.PacketTranslationStats;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Translates chunks on a shared pool of worker threads, so a large amount of chunks does not hold up every other packet
+ * in a session's event loop.
+ * <p>
+ * Results are applied on the session's event loop in the order the chunks were received. Packets that modify blocks
+ * must go through {@link #runInOrder(Runnable)} so they are not applied to a chunk that has not been sent yet - see
+ * {@link org.geysermc.geyser.translator.protocol.PacketTranslator#isOrderedWithChunks()}.
+ * <p>
+ * Every method of an instance must be called from the session's event loop.
+ */
+public final class ChunkTranslationPipeline {
+    /**
+     * How many chunks of one session may be handed to the worker threads at once. This stops one player receiving
+     * a large amount of chunks from starving everyone else.
+     */
+    private static final int MAX_IN_FLIGHT_PER_SESSION = 4;
+
+    private static ExecutorService EXECUTOR = null;
+
+    private static final AtomicInteger QUEUE_DEPTH = new AtomicInteger();
+    private static final LongAdder TRANSLATED_CHUNKS = new LongAdder();
+    private static final LongAdder TRANSLATION_NANOS = new LongAdder();
+    private static final AtomicLong MAX_TRANSLATION_NANOS = new AtomicLong();
+
+    private final GeyserSession session;
+    /**
+     * All steps that have yet to be applied, in order.
+     */
+    private final Deque<Step> steps = new ArrayDeque<>();
+    /**
+     * Steps that have not been handed to the executor yet.
+     */
+    private final Deque<Step> waiting = new ArrayDeque<>();
+    private int inFlight = 0;
+    /**
+     * The amount of steps queued through {@link #runInOrder(Runnable)} that have yet to be applied.
+     */
+    private int pendingTasks = 0;
+    /**
+     * The reserved step that {@link #submit} fills, while its reservation is being run.
+     */
+    private @Nullable Step reserved = null;
+
+    private ChunkTranslationPipeline(GeyserSession session) {
+        this.session = session;
+    }
+
+    /**
+     * (Re)initializes the worker threads.
+     *
+     * @param threads the amount of worker threads, or 0 to translate chunks on the session's event loop
+     */
+    public static void init(int threads) {
+        shutdown();
+        if (threads > 0) {
+            EXECUTOR = Executors.newFixedThreadPool(threads, new DefaultThreadFactory("Geyser Chunk Translation Thread", true));
+        }
+    }
+
+    public static void shutdown() {
+        if (EXECUTOR != null) {
+            EXECUTOR.shutdown();
+            EXECUTOR = null;
+        }
+    }
+
+    /**
+     * @return a new pipeline for this session, or null if chunks should be translated on the session's event loop
+     */
+    public static @Nullable ChunkTranslationPipeline create(GeyserSession session) {
+        return EXECUTOR == null ? null : new ChunkTranslationPipeline(session);
+    }
+
+    /**
+     * Runs the work on a worker thread, and then applies its result in order on the event loop.
+     *
+     * @param packetClass the packet being translated, which the time of the work is recorded for
+     * @param work the work that does not require the session's event loop
+     * @param apply applies the result of the work to the session
+     * @param fallback run in order instead of applying a result if the work failed
+     */
+    public <T> void submit(Class<?> packetClass, Supplier<T> work, Consumer<T> apply, Runnable fallback) {
+        Step step = reserved != null ? reserved : new Step();
+        step.fallback = fallback;
+        step.work = () -> {
+            long start = System.nanoTime();
+            T result = work.get();
+            long time = System.nanoTime() - start;
+            TRANSLATED_CHUNKS.increment();
+            TRANSLATION_NANOS.add(time);
+            MAX_TRANSLATION_NANOS.accumulateAndGet(time, Math::max);
+            if (PacketTranslationStats.isTiming()) {
+                PacketTranslationStats.recordWorker(session, packetClass, time);
+            }
+            step.apply = () -> apply.accept(result);
+        };
+        if (step != reserved) {
+            steps.add(step);
+        }
+        waiting.add(step);
+        pump();
+    }
+
+    /**
+     * Keeps a place in the order for a chunk whose translation depends on the steps before it, for example on a
+     * dimension change. Once all of them have been applied, the submitter is run on the event loop, and its call to
+     * {@link #submit} fills the kept place, so steps queued after it are still applied after the chunk.
+     */
+    public void reserve(Runnable submitter) {
+        if (steps.isEmpty()) {
+            submitter.run();
+            return;
+        }
+        Step step = new Step();
+        step.submitter = submitter;
+        steps.add(step);
+    }
+
+    /**
+     * Runs the task once all chunks before it have been applied, or immediately if no chunks are being translated.
+     */
+    public void runInOrder(Runnable runnable) {
+        if (steps.isEmpty()) {
+            runnable.run();
+            return;
+        }
+        Step step = new Step();
+        step.apply = runnable;
+        step.done = true;
+        step.task = true;
+        steps.add(step);
+        pendingTasks++;
+    }
+
+    /**
+     * @return true if packets are waiting for chunks before them, for example a dimension change that chunks after it
+     * depend on
+     */
+    public boolean hasPendingTasks() {
+        return pendingTasks != 0;
+    }
+
+    /**
+     * @return the amount of chunks and other tasks of this session that are waiting to be applied
+     */
+    public int pending() {
+        return steps.size();
+    }
+
+    private void pump() {
+        while (inFlight < MAX_IN_FLIGHT_PER_SESSION && !waiting.isEmpty()) {
+            Step step = waiting.poll();
+            inFlight++;
+            QUEUE_DEPTH.incrementAndGet();
+
+            Runnable task = () -> {
+                QUEUE_DEPTH.decrementAndGet();
+                try {
+                    step.work.run();
+                } catch (Throwable t) {
+                    GeyserImpl.getInstance().getLogger().error("Error translating chunk for " + session.bedrockUsername(), t);
+                }
+                step.done = true;
+                session.executeInEventLoop(this::onWorkDone);
+            };
+
+            ExecutorService executor = EXECUTOR;
+            if (executor == null) {
+                task.run();
+                continue;
+            }
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                task.run();
+            }
+        }
+    }
+
+    private void onWorkDone() {
+        inFlight--;
+
+        Step step;
+        while ((step = steps.peek()) != null) {
+            if (step.submitter != null) {
+                fill(step);
+            }
+            if (!step.done) {
+                break;
+            }
+            steps.poll();
+            if (step.task) {
+                pendingTasks--;
+            }
+            if (session.isClosed()) {
+                continue;
+            }
+            // The fallback is used if the work failed
+            Runnable apply = step.apply != null ? step.apply : step.fallback;
+            if (apply != null) {
+                try {
+                    apply.run();
+                } catch (Throwable t) {
+                    GeyserImpl.getInstance().getLogger().error("Error applying translated chunk for " + session.bedrockUsername(), t);
+                }
+            }
+        }
+
+        pump();
+    }
+
+    /**
+     * Runs the submitter of a reserved step that is now first in line.
+     */
+    private void fill(Step step) {
+        Runnable submitter = step.submitter;
+        step.submitter = null;
+        if (!session.isClosed()) {
+            reserved = step;
+            try {
+                submitter.run();
+            } catch (Throwable t) {
+                GeyserImpl.getInstance().getLogger().error("Error submitting chunk for " + session.bedrockUsername(), t);
+            } finally {
+                reserved = null;
+            }
+        }
+        if (step.work == null) {
+            // Nothing was submitted, so there is nothing to wait for
+            step.done = true;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return EXECUTOR != null;
+    }
+
+    /**
+     * @return the amount of chunks of all sessions waiting for a worker thread
+     */
+    public static int queueDepth() {
+        return QUEUE_DEPTH.get();
+    }
+
+    public static long translatedChunks() {
+        return TRANSLATED_CHUNKS.sum();
+    }
+
+    public static double averageTranslationMillis() {
+        long count = TRANSLATED_CHUNKS.sum();
+        return count == 0 ? 0 : TRANSLATION_NANOS.sum() / (double) count / 1_000_000D;
+    }
+
+    public static double maxTranslationMillis() {
+        return MAX_TRANSLATION_NANOS.get() / 1_000_000D;
+    }
+
+    private static final class Step {
+        /**
+         * Set for a step queued through {@link #reserve(Runnable)} until it is first in line.
+         */
+        private Runnable submitter;
+        private Runnable work;
+        /**
+         * Set by the worker thread once the work is done. Null if the work failed.
+         */
+        private volatile Runnable apply;
+        private Runnable fallback;
+        private volatile boolean done;
+        /**
+         * Whether this step was queued through {@link #runInOrder(Runnable)}.
+         */
+        private boolean task;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.GlobalPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.Palette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.SingletonPalette;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.level.chunk.bitarray.SectionTranscoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Java chunk section stored as a palette of block states plus a packed long array, in YZX order.
+ * <p>
+ * Compared to a {@link DataPalette}, this drops palette entries that are no longer used, needs fewer objects per
+ * section, and sections made up of a single block state are shared between all columns and sessions.
+ * Shared sections must never be modified - use {@link #mutableCopy()} first.
+ */
+public final class CompactChunkSection {
+    /**
+     * Palettes larger than this store block states directly instead.
+     */
+    private static final int MAX_PALETTE_SIZE = 256;
+    private static final long[] EMPTY_DATA = new long[0];
+    private static final Map<Integer, CompactChunkSection> SINGLETONS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[SectionTranscoder.SECTION_SIZE]);
+
+    private final boolean shared;
+    /**
+     * The block states of this section, or null if the data holds block states directly.
+     */
+    private int @Nullable [] palette;
+    private int paletteSize;
+    private int bitsPerEntry;
+    private int entriesPerLong;
+    private long mask;
+    private long[] data;
+
+    private CompactChunkSection(boolean shared, int @Nullable [] palette, int paletteSize, int bitsPerEntry, long[] data) {
+        this.shared = shared;
+        this.palette = palette;
+        this.paletteSize = paletteSize;
+        this.data = data;
+        setBitsPerEntry(bitsPerEntry);
+    }
+
+    /**
+     * @return a shared section where every block is this block state
+     */
+    public static CompactChunkSection singleton(int state) {
+        return SINGLETONS.computeIfAbsent(state, key -> new CompactChunkSection(true, new int[] {state}, 1, 0, EMPTY_DATA));
+    }
+
+    public static CompactChunkSection from(DataPalette dataPalette) {
+        Palette javaPalette = dataPalette.getPalette();
+        BitStorage storage = dataPalette.getStorage();
+        if (javaPalette instanceof SingletonPalette || storage == null) {
+            return singleton(javaPalette.idToState(0));
+        }
+
+        int[] values = SCRATCH.get();
+        SectionTranscoder.unpack(storage.getData(), storage.getBitsPerEntry(), values);
+
+        int[] palette;
+        int paletteSize = 0;
+        if (javaPalette instanceof GlobalPalette) {
+            // Values are block states; only keep the ones actually used
+            Int2IntMap stateToId = new Int2IntOpenHashMap();
+            stateToId.defaultReturnValue(-1);
+            int maxState = 0;
+            for (int i = 0; i < SectionTranscoder.SECTION_SIZE; i++) {
+                int state = values[i];
+                int id = stateToId.get(state);
+                if (id == -1) {
+                    id = paletteSize++;
+                    stateToId.put(state, id);
+                    maxState = Math.max(maxState, state);
+                }
+                values[i] = id;
+            }
+            if (paletteSize > MAX_PALETTE_SIZE) {
+                // Not worth a palette - go back to storing states
+                palette = new int[paletteSize];
+                for (Int2IntMap.Entry entry : stateToId.int2IntEntrySet()) {
+                    palette[entry.getIntValue()] = entry.getIntKey();
+                }
+                for (int i = 0; i < SectionTranscoder.SECTION_SIZE; i++) {
+                    values[i] = palette[values[i]];
+                }
+                return pack(null, 0, bitsFor(maxState + 1), values);
+            }
+            palette = new int[paletteSize];
+            for (Int2IntMap.Entry entry : stateToId.int2IntEntrySet()) {
+                palette[entry.getIntValue()] = entry.getIntKey();
+            }
+        } else {
+            // Values are palette IDs; remap them so palette entries that are not used anymore are dropped
+            int[] remap = new int[javaPalette.size()];
+            for (int i = 0; i < SectionTranscoder.SECTION_SIZE; i++) {
+                remap[values[i]] = 1;
+            }
+            palette = new int[javaPalette.size()];
+            for (int i = 0; i < remap.length; i++) {
+                if (remap[i] != 0) {
+                    palette[paletteSize] = javaPalette.idToState(i);
+                    remap[i] = paletteSize++;
+                }
+            }
+            for (int i = 0; i < SectionTranscoder.SECTION_SIZE; i++) {
+                values[i] = remap[values[i]];
+            }
+        }
+
+        if (paletteSize == 1) {
+            return singleton(palette[0]);
+        }
+        return pack(palette, paletteSize, bitsFor(paletteSize), values);
+    }
+
+    private static CompactChunkSection pack(int @Nullable [] palette, int paletteSize, int bitsPerEntry, int[] values) {
+        int entriesPerLong = 64 / bitsPerEntry;
+        long[] data = new long[(SectionTranscoder.SECTION_SIZE + entriesPerLong - 1) / entriesPerLong];
+        for (int i = 0; i < SectionTranscoder.SECTION_SIZE; i++) {
+            data[i / entriesPerLong] |= (long) values[i] << ((i % entriesPerLong) * bitsPerEntry);
+        }
+        if (palette != null && palette.length != paletteSize) {
+            // Leave a little room to grow, as blocks are often placed in sections after they have been sent
+            int[] trimmed = new int[Math.min(1 << bitsPerEntry, MAX_PALETTE_SIZE)];
+            System.arraycopy(palette, 0, trimmed, 0, paletteSize);
+            palette = trimmed;
+        }
+        return new CompactChunkSection(false, palette, paletteSize, bitsPerEntry, data);
+    }
+
+    /**
+     * @return the block state at this index, in YZX order
+     */
+    public int get(int index) {
+        if (bitsPerEntry == 0) {
+            return palette[0];
+        }
+        int value = (int) ((data[index / entriesPerLong] >>> ((index % entriesPerLong) * bitsPerEntry)) & mask);
+        return palette == null ? value : palette[value];
+    }
+
+    public void set(int index, int state) {
+        if (shared) {
+            throw new IllegalStateException("Cannot modify a shared chunk section!");
+        }
+        int value = idFor(state);
+        if (bitsPerEntry == 0) {
+            // Still a single block state
+            return;
+        }
+        int longIndex = index / entriesPerLong;
+        int shift = (index % entriesPerLong) * bitsPerEntry;
+        data[longIndex] = (data[longIndex] & ~(mask << shift)) | ((long) value << shift);
+    }
+
+    /**
+     * @return a copy of this section that can be modified
+     */
+    public CompactChunkSection mutableCopy() {
+        return new CompactChunkSection(false, palette == null ? null : palette.clone(), paletteSize, bitsPerEntry, data.clone());
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * @return an estimate of the memory used by this section in bytes, which is 0 for shared sections
+     */
+    public long sizeInBytes() {
+        if (shared) {
+            return 0;
+        }
+        // Object header and fields, then both arrays
+        return 40 + arraySize(palette == null ? 0 : palette.length * 4L) + arraySize(data.length * 8L);
+    }
+
+    /**
+     * @return the amount of sections that are shared between all sessions
+     */
+    public static int sharedSections() {
+        return SINGLETONS.size();
+    }
+
+    private int idFor(int state) {
+        if (palette == null) {
+            if (state > mask) {
+                resize(bitsFor(state + 1));
+            }
+            return state;
+        }
+
+        // Palettes are small, and bounded by MAX_PALETTE_SIZE
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == state) {
+                return i;
+            }
+        }
+
+        if (paletteSize == MAX_PALETTE_SIZE) {
+            // Switch to storing block states directly
+            int maxState = state;
+            for (int i = 0; i < paletteSize; i++) {
+                maxState = Math.max(maxState, palette[i]);
+            }
+            int[] oldPalette = palette;
+            palette = null;
+            resize(bitsFor(maxState + 1), oldPalette);
+            return state;
+        }
+
+        if (paletteSize == palette.length) {
+            int[] grown = new int[Math.min(palette.length * 2, MAX_PALETTE_SIZE)];
+            System.arraycopy(palette, 0, grown, 0, paletteSize);
+            palette = grown;
+        }
+        palette[paletteSize] = state;
+        int id = paletteSize++;
+        if (id > mask) {
+            resize(bitsFor(paletteSize));
+        }
+        return id;
+    }
+
+    private void resize(int newBitsPerEntry) {
+        resize(newBitsPerEntry, null);
+    }
+
+    /**
+     * @param oldPalette if not null, old values are mapped through this palette
+     */
+    private void resize(int newBitsPerEntry, int @Nullable [] oldPalette) {
+        int[] values = SCRATCH.get();
+        for (int i = 0; i < SectionTranscoder.SECTION_SIZE; i++) {
+            int value = bitsPerEntry == 0 ? 0 : (int) ((data[i / entriesPerLong] >>> ((i % entriesPerLong) * bitsPerEntry)) & mask);
+            values[i] = oldPalette == null ? value : oldPalette[value];
+        }
+
+        setBitsPerEntry(newBitsPerEntry);
+        data = new long[(SectionTranscoder.SECTION_SIZE + entriesPerLong - 1) / entriesPerLong];
+        for (int i = 0; i < SectionTranscoder.SECTION_SIZE; i++) {
+            data[i / entriesPerLong] |= (long) values[i] << ((i % entriesPerLong) * newBitsPerEntry);
+        }
+    }
+
+    private void setBitsPerEntry(int bitsPerEntry) {
+        this.bitsPerEntry = bitsPerEntry;
+        this.entriesPerLong = bitsPerEntry == 0 ? 0 : 64 / bitsPerEntry;
+        this.mask = (1L << bitsPerEntry) - 1L;
+    }
+
+    /**
+     * @return the bits needed to store this amount of different values
+     */
+    private static int bitsFor(int size) {
+        return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    private static long arraySize(long bytes) {
+        return 16 + ((bytes + 7) & ~7L);
+    }
+}
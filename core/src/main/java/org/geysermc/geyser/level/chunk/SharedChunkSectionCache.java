@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.ByteBuf;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A size-bounded cache of translated Bedrock block storages, shared between all sessions.
+ * <p>
+ * Players on the same server are often sent the exact same chunk sections - this is especially true on lobby
+ * and minigame servers. Translating a section is the expensive part of chunk translation, so sessions on the same
+ * Bedrock protocol version can reuse each other's work.
+ * <p>
+ * Only sections whose translation does not depend on their neighbours or their position in the world should be stored here.
+ * Cached storages must never be modified - use {@link GeyserChunkSection#copy(int)} first.
+ */
+public final class SharedChunkSectionCache {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static Cache<Key, BlockStorage[]> CACHE = null;
+
+    /**
+     * (Re)initializes the cache.
+     *
+     * @param maximumSize the maximum amount of sections to hold, or 0 to disable the cache
+     */
+    public static void init(int maximumSize) {
+        if (maximumSize <= 0) {
+            CACHE = null;
+            return;
+        }
+        CACHE = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public static boolean isEnabled() {
+        return CACHE != null;
+    }
+
+    /**
+     * Creates a key from the raw Java section bytes, which contain both the block and biome palettes.
+     *
+     * @param protocolVersion the Bedrock protocol version of the session, as block runtime IDs differ between versions
+     * @param extendedCollisions whether the session's block mappings use extended collision boxes
+     * @param buf the buffer containing the Java chunk data
+     * @param index the index the section starts at
+     * @param length the length of the section in bytes
+     */
+    public static Key createKey(int protocolVersion, boolean extendedCollisions, ByteBuf buf, int index, int length) {
+        HashCode hash;
+        if (buf.hasArray()) {
+            hash = HASH_FUNCTION.hashBytes(buf.array(), buf.arrayOffset() + index, length);
+        } else {
+            hash = HASH_FUNCTION.hashBytes(buf.nioBuffer(index, length));
+        }
+        return new Key(protocolVersion, extendedCollisions, hash);
+    }
+
+    public static @Nullable BlockStorage[] get(Key key) {
+        Cache<Key, BlockStorage[]> cache = CACHE;
+        return cache == null ? null : cache.getIfPresent(key);
+    }
+
+    public static void put(Key key, BlockStorage[] storages) {
+        Cache<Key, BlockStorage[]> cache = CACHE;
+        if (cache != null) {
+            cache.put(key, storages);
+        }
+    }
+
+    public static long size() {
+        Cache<Key, BlockStorage[]> cache = CACHE;
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of this cache, or null if the cache is disabled
+     */
+    public static @Nullable CacheStats stats() {
+        Cache<Key, BlockStorage[]> cache = CACHE;
+        return cache == null ? null : cache.stats();
+    }
+
+    public record Key(int protocolVersion, boolean extendedCollisions, HashCode hash) {
+    }
+
+    private SharedChunkSectionCache() {
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk.bitarray;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Converts whole Java chunk sections into Bedrock's layout, instead of going through {@link BitArray#get(int)} and
+ * {@link BitArray#set(int, int)} for every block.
+ * <p>
+ * Java stores blocks in YZX order in an array of longs, while Bedrock stores blocks in XZY order in an array of ints.
+ * In both formats an entry never spans two words.
+ */
+public final class SectionTranscoder {
+    public static final int SECTION_SIZE = 4096;
+
+    /**
+     * Unpacks a Java bit storage into one int per entry, still in YZX order.
+     *
+     * @param data the long array of the Java bit storage
+     * @param bitsPerEntry the amount of bits per entry in the Java bit storage
+     * @param out the array to write the {@link #SECTION_SIZE} entries to
+     */
+    public static void unpack(long[] data, int bitsPerEntry, int[] out) {
+        if (bitsPerEntry == 0) {
+            // Singleton palette
+            Arrays.fill(out, 0, SECTION_SIZE, 0);
+            return;
+        }
+
+        final long mask = (1L << bitsPerEntry) - 1L;
+        final int valuesPerLong = 64 / bitsPerEntry;
+        int index = 0;
+        for (long word : data) {
+            for (int j = 0; j < valuesPerLong && index < SECTION_SIZE; j++) {
+                out[index++] = (int) (word & mask);
+                word >>>= bitsPerEntry;
+            }
+        }
+    }
+
+    /**
+     * Writes entries in YZX order into a Bedrock bit array in XZY order. Every value must fit into the bit array's version.
+     *
+     * @param yzxValues the {@link #SECTION_SIZE} values in Java's YZX order
+     * @param target the Bedrock bit array to overwrite
+     * @param waterloggedIds the values that are waterlogged, or null if there are none
+     * @param layer1Words a {@link BitArrayVersion#V1} word array; the bit of every waterlogged block is set in here
+     * @param extendedCollisionIds the values that have extended collision boxes, or null if there are none
+     * @param extendedCollisionMask 64 longs; the bit of the YZX index of every extended collision block is set in here
+     */
+    public static void transcode(int[] yzxValues, BitArray target, @Nullable BitSet waterloggedIds, int @Nullable [] layer1Words,
+                                 @Nullable BitSet extendedCollisionIds, long @Nullable [] extendedCollisionMask) {
+        final BitArrayVersion version = target.getVersion();
+        if (version == BitArrayVersion.V0) {
+            return;
+        }
+        final int bits = version.bits;
+        final int entriesPerWord = version.entriesPerWord;
+        final int[] words = target.getWords();
+        final boolean checkWaterlogged = waterloggedIds != null && layer1Words != null && !waterloggedIds.isEmpty();
+        final boolean checkCollisions = extendedCollisionIds != null && extendedCollisionMask != null && !extendedCollisionIds.isEmpty();
+
+        int wordIndex = 0;
+        int word = 0;
+        int shift = 0;
+        int entries = 0;
+        for (int xzy = 0; xzy < SECTION_SIZE; xzy++) {
+            int yzx = ((xzy & 0x00F) << 8) | (xzy & 0x0F0) | (xzy >> 8);
+            int value = yzxValues[yzx];
+            word |= value << shift;
+
+            if (checkWaterlogged && waterloggedIds.get(value)) {
+                layer1Words[xzy >> 5] |= 1 << (xzy & 0x1F);
+            }
+            if (checkCollisions && extendedCollisionIds.get(value)) {
+                extendedCollisionMask[yzx >> 6] |= 1L << (yzx & 0x3F);
+            }
+
+            if (++entries == entriesPerWord) {
+                words[wordIndex++] = word;
+                word = 0;
+                shift = 0;
+                entries = 0;
+            } else {
+                shift += bits;
+            }
+        }
+        if (entries != 0) {
+            words[wordIndex] = word;
+        }
+    }
+
+    private SectionTranscoder() {
+    }
+}
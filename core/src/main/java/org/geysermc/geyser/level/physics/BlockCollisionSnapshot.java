@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.level.physics;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.erosion.util.BlockPositionIterator;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.collision.BlockCollision;
+import org.geysermc.geyser.util.BlockUtils;
+
+/**
+ * The block collisions of the area a movement can reach, looked up once with a single batch request.
+ * <p>
+ * Correcting one movement checks the same blocks for every axis and again for every step up attempt, so
+ * the world is only queried once per movement instead of once per block per pass.
+ */
+final class BlockCollisionSnapshot {
+    private final GeyserSession session;
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final BlockCollision[] collisions;
+
+    private BlockCollisionSnapshot(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+        this.session = session;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.collisions = new BlockCollision[sizeX * sizeY * sizeZ];
+    }
+
+    static BlockCollisionSnapshot take(GeyserSession session, BlockPositionIterator iter) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (iter.reset(); iter.hasNext(); iter.next()) {
+            minX = Math.min(minX, iter.getX());
+            minY = Math.min(minY, iter.getY());
+            minZ = Math.min(minZ, iter.getZ());
+            maxX = Math.max(maxX, iter.getX());
+            maxY = Math.max(maxY, iter.getY());
+            maxZ = Math.max(maxZ, iter.getZ());
+        }
+
+        BlockCollisionSnapshot snapshot = new BlockCollisionSnapshot(session, minX, minY, minZ,
+                maxX - minX + 1, maxY - minY + 1, maxZ - minZ + 1);
+
+        iter.reset();
+        int[] blocks = session.getGeyser().getWorldManager().getBlocksAt(session, iter);
+        for (iter.reset(); iter.hasNext(); iter.next()) {
+            snapshot.collisions[snapshot.index(iter.getX(), iter.getY(), iter.getZ())] = BlockUtils.getCollision(blocks[iter.getIteration()]);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the collision of the block, looking it up in the world if it is outside of this snapshot
+     */
+    @Nullable BlockCollision get(int x, int y, int z) {
+        int localX = x - minX;
+        int localY = y - minY;
+        int localZ = z - minZ;
+        if (localX < 0 || localX >= sizeX || localY < 0 || localY >= sizeY || localZ < 0 || localZ >= sizeZ) {
+            return BlockUtils.getCollisionAt(session, x, y, z);
+        }
+        return collisions[index(x, y, z)];
+    }
+
+    private int index(int x, int y, int z) {
+        return (((x - minX) * sizeZ) + (z - minZ)) * sizeY + (y - minY);
+    }
+}
@@ -269,25 +269,36 @@ public class CollisionManager {
     }
 
     public Vector3d correctMovement(Vector3d movement, BoundingBox boundingBox, boolean onGround, double stepUp, boolean checkWorld) {
-        Vector3d adjustedMovement = movement;
-        if (!movement.equals(Vector3d.ZERO)) {
-            adjustedMovement = correctMovementForCollisions(movement, boundingBox, checkWorld);
+        if (movement.equals(Vector3d.ZERO)) {
+            // Nothing can collide, so there is no need to look up any blocks
+            return movement;
+        }
+
+        BlockCollisionSnapshot world = null;
+        if (checkWorld) {
+            // Every pass below, including stepping up, stays within the movement plus the step height
+            BoundingBox reach = boundingBox.clone();
+            reach.extend(movement);
+            reach.extend(0, stepUp, 0);
+            world = BlockCollisionSnapshot.take(session, collidableBlocksIterator(reach));
         }
 
+        Vector3d adjustedMovement = correctMovementForCollisions(movement, boundingBox, world);
+
         boolean verticalCollision = adjustedMovement.getY() != movement.getY();
         boolean horizontalCollision = adjustedMovement.getX() != movement.getX() || adjustedMovement.getZ() != movement.getZ();
         boolean falling = movement.getY() < 0;
         onGround = onGround || (verticalCollision && falling);
         if (onGround && horizontalCollision) {
             Vector3d horizontalMovement = Vector3d.from(movement.getX(), 0, movement.getZ());
-            Vector3d stepUpMovement = correctMovementForCollisions(horizontalMovement.up(stepUp), boundingBox, checkWorld);
+            Vector3d stepUpMovement = correctMovementForCollisions(horizontalMovement.up(stepUp), boundingBox, world);
 
             BoundingBox stretchedBoundingBox = boundingBox.clone();
             stretchedBoundingBox.extend(horizontalMovement);
-            double maxStepUp = correctMovementForCollisions(Vector3d.from(0, stepUp, 0), stretchedBoundingBox, checkWorld).getY();
+            double maxStepUp = correctMovementForCollisions(Vector3d.from(0, stepUp, 0), stretchedBoundingBox, world).getY();
             if (maxStepUp < stepUp) { // The player collided with a block above them
                 boundingBox.translate(0, maxStepUp, 0);
-                Vector3d adjustedStepUpMovement = correctMovementForCollisions(horizontalMovement, boundingBox, checkWorld);
+                Vector3d adjustedStepUpMovement = correctMovementForCollisions(horizontalMovement, boundingBox, world);
                 boundingBox.translate(0, -maxStepUp, 0);
 
                 if (squaredHorizontalLength(adjustedStepUpMovement) > squaredHorizontalLength(stepUpMovement)) {
@@ -298,7 +309,7 @@ public class CollisionManager {
             if (squaredHorizontalLength(stepUpMovement) > squaredHorizontalLength(adjustedMovement)) {
                 boundingBox.translate(stepUpMovement.getX(), stepUpMovement.getY(), stepUpMovement.getZ());
                 // Apply the player's remaining vertical movement
-                double verticalMovement = correctMovementForCollisions(Vector3d.from(0, movement.getY() - stepUpMovement.getY(), 0), boundingBox, checkWorld).getY();
+                double verticalMovement = correctMovementForCollisions(Vector3d.from(0, movement.getY() - stepUpMovement.getY(), 0), boundingBox, world).getY();
                 boundingBox.translate(-stepUpMovement.getX(), -stepUpMovement.getY(), -stepUpMovement.getZ());
 
                 stepUpMovement = stepUpMovement.up(verticalMovement);
@@ -312,7 +323,10 @@ public class CollisionManager {
         return vector.getX() * vector.getX() + vector.getZ() * vector.getZ();
     }
 
-    private Vector3d correctMovementForCollisions(Vector3d movement, BoundingBox boundingBox, boolean checkWorld) {
+    /**
+     * @param world the block collisions to check, or null to only check pistons
+     */
+    private Vector3d correctMovementForCollisions(Vector3d movement, BoundingBox boundingBox, @Nullable BlockCollisionSnapshot world) {
         double movementX = movement.getX();
         double movementY = movement.getY();
         double movementZ = movement.getZ();
@@ -321,20 +335,20 @@ public class CollisionManager {
         movementBoundingBox.extend(movement);
         BlockPositionIterator iter = collidableBlocksIterator(movementBoundingBox);
         if (Math.abs(movementY) > CollisionManager.COLLISION_TOLERANCE) {
-            movementY = computeCollisionOffset(boundingBox, Axis.Y, movementY, iter, checkWorld);
+            movementY = computeCollisionOffset(boundingBox, Axis.Y, movementY, iter, world);
             boundingBox.translate(0, movementY, 0);
         }
         boolean checkZFirst = Math.abs(movementZ) > Math.abs(movementX);
         if (checkZFirst && Math.abs(movementZ) > CollisionManager.COLLISION_TOLERANCE) {
-            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, iter, checkWorld);
+            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, iter, world);
             boundingBox.translate(0, 0, movementZ);
         }
         if (Math.abs(movementX) > CollisionManager.COLLISION_TOLERANCE) {
-            movementX = computeCollisionOffset(boundingBox, Axis.X, movementX, iter, checkWorld);
+            movementX = computeCollisionOffset(boundingBox, Axis.X, movementX, iter, world);
             boundingBox.translate(movementX, 0, 0);
         }
         if (!checkZFirst && Math.abs(movementZ) > CollisionManager.COLLISION_TOLERANCE) {
-            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, iter, checkWorld);
+            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, iter, world);
             boundingBox.translate(0, 0, movementZ);
         }
 
@@ -342,13 +356,13 @@ public class CollisionManager {
         return Vector3d.from(movementX, movementY, movementZ);
     }
 
-    private double computeCollisionOffset(BoundingBox boundingBox, Axis axis, double offset, BlockPositionIterator iter, boolean checkWorld) {
+    private double computeCollisionOffset(BoundingBox boundingBox, Axis axis, double offset, BlockPositionIterator iter, @Nullable BlockCollisionSnapshot world) {
         for (iter.reset(); iter.hasNext(); iter.next()) {
             int x = iter.getX();
             int y = iter.getY();
             int z = iter.getZ();
-            if (checkWorld) {
-                BlockCollision blockCollision = BlockUtils.getCollisionAt(session, x, y, z);
+            if (world != null) {
+                BlockCollision blockCollision = world.get(x, y, z);
                 if (blockCollision != null && !(blockCollision instanceof ScaffoldingCollision)) {
                     offset = blockCollision.computeCollisionOffset(x, y, z, boundingBox, axis, offset);
                 }
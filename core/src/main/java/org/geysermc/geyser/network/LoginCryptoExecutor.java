@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.network;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs the validation and key exchange of Bedrock logins on a small pool of threads, so that many players joining at
+ * once do not hold up the network threads that every other player depends on.
+ * <p>
+ * Logins are handled in the order they arrive. If too many logins are already waiting, new ones are turned away
+ * instead of being queued indefinitely.
+ */
+public final class LoginCryptoExecutor {
+    private static ThreadPoolExecutor EXECUTOR = null;
+
+    private static final LongAdder HANDSHAKES = new LongAdder();
+    private static final LongAdder REJECTED_LOGINS = new LongAdder();
+    private static final LongAdder QUEUE_NANOS = new LongAdder();
+    private static final AtomicLong MAX_QUEUE_NANOS = new AtomicLong();
+    private static final LongAdder HANDSHAKE_NANOS = new LongAdder();
+    private static final AtomicLong MAX_HANDSHAKE_NANOS = new AtomicLong();
+
+    private LoginCryptoExecutor() {
+    }
+
+    /**
+     * (Re)initializes the worker threads.
+     *
+     * @param threads the amount of worker threads, or 0 to handle logins on the network threads
+     * @param maxPendingLogins how many logins may wait for a worker thread before new logins are turned away
+     */
+    public static void init(int threads, int maxPendingLogins) {
+        shutdown();
+        if (threads > 0) {
+            EXECUTOR = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(Math.max(1, maxPendingLogins)), new DefaultThreadFactory("Geyser Login Crypto Thread", true));
+        }
+    }
+
+    public static void shutdown() {
+        if (EXECUTOR != null) {
+            EXECUTOR.shutdown();
+            EXECUTOR = null;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return EXECUTOR != null;
+    }
+
+    /**
+     * Runs the work on a worker thread.
+     *
+     * @param work the validation and key exchange of a login
+     * @param callbackExecutor the executor to call the callback on
+     * @param callback receives either the result of the work, or the exception it threw
+     * @return false if too many logins are waiting already, in which case the callback is never called
+     */
+    public static <T> boolean submit(Callable<T> work, Executor callbackExecutor, BiConsumer<T, Throwable> callback) {
+        ThreadPoolExecutor executor = EXECUTOR;
+        if (executor == null) {
+            throw new IllegalStateException("The login crypto executor is not enabled");
+        }
+
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                record(start - submitted, QUEUE_NANOS, MAX_QUEUE_NANOS);
+
+                T result = null;
+                Throwable error = null;
+                try {
+                    result = work.call();
+                } catch (Throwable t) {
+                    error = t;
+                }
+                HANDSHAKES.increment();
+                record(System.nanoTime() - start, HANDSHAKE_NANOS, MAX_HANDSHAKE_NANOS);
+
+                T finalResult = result;
+                Throwable finalError = error;
+                callbackExecutor.execute(() -> callback.accept(finalResult, finalError));
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            REJECTED_LOGINS.increment();
+            return false;
+        }
+    }
+
+    private static void record(long nanos, LongAdder total, AtomicLong max) {
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return the amount of logins waiting for a worker thread
+     */
+    public static int queueDepth() {
+        ThreadPoolExecutor executor = EXECUTOR;
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public static long handshakes() {
+        return HANDSHAKES.sum();
+    }
+
+    public static long rejectedLogins() {
+        return REJECTED_LOGINS.sum();
+    }
+
+    public static double averageQueueMillis() {
+        long count = HANDSHAKES.sum();
+        return count == 0 ? 0 : QUEUE_NANOS.sum() / (double) count / 1_000_000D;
+    }
+
+    public static double maxQueueMillis() {
+        return MAX_QUEUE_NANOS.get() / 1_000_000D;
+    }
+
+    public static double averageHandshakeMillis() {
+        long count = HANDSHAKES.sum();
+        return count == 0 ? 0 : HANDSHAKE_NANOS.sum() / (double) count / 1_000_000D;
+    }
+
+    public static double maxHandshakeMillis() {
+        return MAX_HANDSHAKE_NANOS.get() / 1_000_000D;
+    }
+}
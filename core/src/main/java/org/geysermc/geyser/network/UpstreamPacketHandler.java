@@ -26,6 +26,7 @@
 package org.geysermc.geyser.network;
 
 import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoop;
 import org.cloudburstmc.protocol.bedrock.BedrockDisconnectReasons;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.data.ExperimentData;
@@ -54,18 +55,16 @@ import org.geysermc.geyser.api.pack.ResourcePack;
 import org.geysermc.geyser.api.pack.ResourcePackManifest;
 import org.geysermc.geyser.event.type.SessionLoadResourcePacksEventImpl;
 import org.geysermc.geyser.pack.GeyserResourcePack;
+import org.geysermc.geyser.pack.ResourcePackChunkProvider;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.Registries;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.PendingMicrosoftAuthentication;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.util.LoginEncryptionUtils;
-import org.geysermc.geyser.util.MathUtils;
 import org.geysermc.geyser.util.VersionCheckUtils;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
@@ -75,6 +74,10 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
 
     private boolean networkSettingsRequested = false;
     private final Deque<String> packsToSent = new ArrayDeque<>();
+    /**
+     * When the player started downloading resource packs, or 0 if they are not downloading any
+     */
+    private long packDownloadStart = 0;
 
     private SessionLoadResourcePacksEventImpl resourcePackLoadEvent;
 
@@ -167,11 +170,37 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         session.setBlockMappings(BlockRegistries.BLOCKS.forVersion(loginPacket.getProtocolVersion()));
         session.setItemMappings(Registries.ITEMS.forVersion(loginPacket.getProtocolVersion()));
 
-        LoginEncryptionUtils.encryptPlayerConnection(session, loginPacket);
+        if (!LoginCryptoExecutor.isEnabled()) {
+            LoginEncryptionUtils.encryptPlayerConnection(session, loginPacket);
+            finishLogin();
+            return PacketSignal.HANDLED;
+        }
 
+        // The encryption must be enabled on the network thread, right after the handshake has been sent unencrypted
+        EventLoop eventLoop = session.getUpstream().getSession().getPeer().getChannel().eventLoop();
+        boolean accepted = LoginCryptoExecutor.submit(() -> LoginEncryptionUtils.prepareLogin(geyser, loginPacket), eventLoop, (login, error) -> {
+            if (session.isClosed()) {
+                return;
+            }
+            if (error != null) {
+                session.disconnect("disconnectionScreen.internalError.cantConnect");
+                geyser.getLogger().error("Unable to complete login", error);
+                return;
+            }
+            LoginEncryptionUtils.applyLogin(session, login);
+            finishLogin();
+        });
+        if (!accepted) {
+            geyser.getLogger().debug("Turning away a login as too many logins are waiting to be validated");
+            session.disconnect("disconnectionScreen.serverFull");
+        }
+        return PacketSignal.HANDLED;
+    }
+
+    private void finishLogin() {
         if (session.isClosed()) {
             // Can happen if Xbox validation fails
-            return PacketSignal.HANDLED;
+            return;
         }
 
         PlayStatusPacket playStatus = new PlayStatusPacket();
@@ -195,7 +224,6 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         session.sendUpstreamPacket(resourcePacksInfo);
 
         GeyserLocale.loadGeyserLocale(session.locale());
-        return PacketSignal.HANDLED;
     }
 
     @Override
@@ -212,6 +240,7 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
                 break;
 
             case SEND_PACKS:
+                packDownloadStart = System.nanoTime();
                 packsToSent.addAll(packet.getPackIds());
                 sendPackDataInfo(packsToSent.pop());
                 break;
@@ -299,22 +328,26 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
 
         int offset = packet.getChunkIndex() * GeyserResourcePack.CHUNK_SIZE;
         long remainingSize = codec.size() - offset;
-        byte[] packData = new byte[(int) MathUtils.constrain(remainingSize, 0, GeyserResourcePack.CHUNK_SIZE)];
 
-        try (SeekableByteChannel channel = codec.serialize(pack)) {
-            channel.position(offset);
-            channel.read(ByteBuffer.wrap(packData, 0, packData.length));
+        try {
+            data.setData(ResourcePackChunkProvider.readChunk(pack, packet.getChunkIndex()));
         } catch (IOException e) {
             e.printStackTrace();
+            data.setData(Unpooled.EMPTY_BUFFER);
         }
 
-        data.setData(Unpooled.wrappedBuffer(packData));
-
         session.sendUpstreamPacket(data);
 
         // Check if it is the last chunk and send next pack in queue when available.
-        if (remainingSize <= GeyserResourcePack.CHUNK_SIZE && !packsToSent.isEmpty()) {
-            sendPackDataInfo(packsToSent.pop());
+        if (remainingSize <= GeyserResourcePack.CHUNK_SIZE) {
+            if (!packsToSent.isEmpty()) {
+                sendPackDataInfo(packsToSent.pop());
+            } else if (packDownloadStart != 0) {
+                long time = System.nanoTime() - packDownloadStart;
+                packDownloadStart = 0;
+                ResourcePackChunkProvider.recordDownload(time);
+                geyser.getLogger().debug(session.bedrockUsername() + " downloaded resource packs in " + (time / 1_000_000) + "ms");
+            }
         }
 
         return PacketSignal.HANDLED;
@@ -27,6 +27,7 @@ package org.geysermc.geyser.network.netty;
 
 import com.github.steveice10.packetlib.helper.TransportHelper;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoopGroup;
@@ -43,6 +44,7 @@ import io.netty.util.concurrent.Future;
 import lombok.Getter;
 import net.jodah.expiringmap.ExpirationPolicy;
 import net.jodah.expiringmap.ExpiringMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.netty.channel.raknet.RakChannelFactory;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerOfflineHandler;
@@ -102,6 +104,9 @@ public final class GeyserServer {
 
     private ChannelFuture bootstrapFuture;
 
+    private final @Nullable PongCache pongCache;
+    private final @Nullable PingRateLimiter pingRateLimiter;
+
     public GeyserServer(GeyserImpl geyser, int threadCount) {
         this.geyser = geyser;
         this.group = TRANSPORT.eventLoopGroupFactory().apply(threadCount);
@@ -115,6 +120,10 @@ public final class GeyserServer {
         } else {
             this.proxiedAddresses = null;
         }
+
+        GeyserConfiguration config = this.geyser.getConfig();
+        this.pongCache = config.getPingCacheMillis() > 0 ? new PongCache(address -> onQuery(address).toByteBuf(), config.getPingCacheMillis()) : null;
+        this.pingRateLimiter = config.getPingRateLimit() > 0 ? new PingRateLimiter(config.getPingRateLimit()) : null;
     }
 
     public CompletableFuture<Void> bind(InetSocketAddress address) {
@@ -151,6 +160,9 @@ public final class GeyserServer {
             future2.sync();
 
             SkinProvider.shutdown();
+            if (this.pongCache != null) {
+                this.pongCache.shutdown();
+            }
         } catch (InterruptedException e) {
             GeyserImpl.getInstance().getLogger().severe("Exception in shutdown process", e);
         }
@@ -212,6 +224,24 @@ public final class GeyserServer {
         return true;
     }
 
+    /**
+     * @return whether a ping from this address should be answered
+     */
+    public boolean isPingAllowed(InetSocketAddress inetSocketAddress) {
+        return this.pingRateLimiter == null || this.pingRateLimiter.tryAcquire(inetSocketAddress);
+    }
+
+    /**
+     * @return the encoded pong to reply to a ping with, or null if the pong could not be built
+     */
+    public @Nullable ByteBuf encodedPong(InetSocketAddress inetSocketAddress) {
+        if (this.pongCache == null || ConnectionTestCommand.CONNECTION_TEST_MOTD != null) {
+            // The connection test must see its MOTD straight away
+            return onQuery(inetSocketAddress).toByteBuf();
+        }
+        return this.pongCache.get(inetSocketAddress);
+    }
+
     public BedrockPong onQuery(InetSocketAddress inetSocketAddress) {
         if (geyser.getConfig().isDebugMode() && PRINT_DEBUG_PINGS) {
             String ip;
@@ -264,7 +294,7 @@ public final class GeyserServer {
             pong.playerCount(pingInfo.getPlayers().getOnline());
             pong.maximumPlayerCount(pingInfo.getPlayers().getMax());
         } else {
-            pong.playerCount(geyser.getSessionManager().getSessions().size());
+            pong.playerCount(geyser.getSessionManager().activeSize());
             pong.maximumPlayerCount(config.getMaxPlayers());
         }
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.network.netty;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many pings are answered per source with a token bucket, so a single host cannot use Geyser to flood
+ * others with pongs or keep the network threads busy.
+ * <p>
+ * IPv4 sources are limited per address, while IPv6 sources are limited per /64 network, since a single host usually
+ * has a whole /64 network to itself.
+ */
+public final class PingRateLimiter {
+    /**
+     * Limits the memory used when pings come from a large amount of (possibly spoofed) addresses.
+     */
+    private static final int MAX_TRACKED_SOURCES = 100_000;
+
+    private final int pingsPerSecond;
+    private final Cache<ByteBuffer, Bucket> buckets;
+
+    /**
+     * @param pingsPerSecond how many pings may be answered per second and source. This is also the maximum burst size.
+     */
+    public PingRateLimiter(int pingsPerSecond) {
+        this.pingsPerSecond = pingsPerSecond;
+        this.buckets = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TRACKED_SOURCES)
+                .expireAfterAccess(1, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * @return whether a ping from this address should be answered
+     */
+    public boolean tryAcquire(InetSocketAddress sender) {
+        Bucket bucket;
+        try {
+            bucket = buckets.get(sourceKey(sender.getAddress()), () -> new Bucket(pingsPerSecond));
+        } catch (ExecutionException e) {
+            // Cannot happen
+            return true;
+        }
+        return bucket.tryAcquire(pingsPerSecond);
+    }
+
+    private static ByteBuffer sourceKey(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        // IPv6: only the network prefix
+        return ByteBuffer.wrap(bytes, 0, Math.min(bytes.length, 8)).slice();
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private Bucket(int tokens) {
+            this.tokens = tokens;
+        }
+
+        private synchronized boolean tryAcquire(int pingsPerSecond) {
+            long now = System.nanoTime();
+            tokens = Math.min(pingsPerSecond, tokens + (now - lastRefill) * pingsPerSecond / 1_000_000_000D);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.network.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Holds the last encoded pong, so answering a ping does not mean firing the ping event and asking the Java server
+ * for its MOTD every time - on some platforms, that blocks until the Java server has replied.
+ * <p>
+ * The first pong is built on the thread of the first ping. Once the pong is older than the refresh interval, it is
+ * rebuilt on a separate thread while the old pong is still being sent. No pong is built while nobody is pinging.
+ */
+public final class PongCache {
+    private static final LongAdder REFRESHES = new LongAdder();
+    private static final LongAdder REFRESH_NANOS = new LongAdder();
+    private static final AtomicLong MAX_REFRESH_NANOS = new AtomicLong();
+
+    private final Function<InetSocketAddress, ByteBuf> pongFactory;
+    private final long refreshIntervalNanos;
+    private final ExecutorService executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile @Nullable ByteBuf pong = null;
+    private volatile long lastRefresh;
+
+    /**
+     * @param pongFactory builds the encoded pong for a ping from the given address
+     * @param refreshIntervalMillis how old a pong may be before it is rebuilt
+     */
+    public PongCache(Function<InetSocketAddress, ByteBuf> pongFactory, long refreshIntervalMillis) {
+        this.pongFactory = pongFactory;
+        this.refreshIntervalNanos = refreshIntervalMillis * 1_000_000L;
+        this.executor = Executors.newSingleThreadExecutor(new DefaultThreadFactory("Geyser Pong Refresh Thread", true));
+    }
+
+    /**
+     * Only blocks while the first pong is built, so pings arriving at startup are answered too.
+     *
+     * @param sender the address of the ping that caused a refresh. Only passed on to the ping event of that refresh.
+     * @return the encoded pong, or null if it could not be built
+     */
+    public @Nullable ByteBuf get(InetSocketAddress sender) {
+        ByteBuf pong = this.pong;
+        if (pong == null) {
+            pong = buildFirst(sender);
+        } else if (System.nanoTime() - lastRefresh >= refreshIntervalNanos) {
+            refresh(sender);
+        }
+        // The buffer is released once it has been written
+        return pong == null ? null : pong.duplicate();
+    }
+
+    private synchronized @Nullable ByteBuf buildFirst(InetSocketAddress sender) {
+        // Another ping may have built it while this one was waiting
+        ByteBuf pong = this.pong;
+        if (pong == null) {
+            build(sender);
+            pong = this.pong;
+        }
+        return pong;
+    }
+
+    private void refresh(InetSocketAddress sender) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    build(sender);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            refreshing.set(false);
+        }
+    }
+
+    private void build(InetSocketAddress sender) {
+        long start = System.nanoTime();
+        try {
+            ByteBuf encoded = pongFactory.apply(sender);
+            this.pong = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(encoded).asReadOnly());
+            encoded.release();
+        } catch (Throwable t) {
+            GeyserImpl.getInstance().getLogger().error("Error building pong", t);
+        } finally {
+            long end = System.nanoTime();
+            // Also when failing, so a broken ping event does not cause a refresh on every ping
+            this.lastRefresh = end;
+            REFRESHES.increment();
+            REFRESH_NANOS.add(end - start);
+            MAX_REFRESH_NANOS.accumulateAndGet(end - start, Math::max);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public static long refreshes() {
+        return REFRESHES.sum();
+    }
+
+    public static double averageRefreshMillis() {
+        long count = REFRESHES.sum();
+        return count == 0 ? 0 : REFRESH_NANOS.sum() / (double) count / 1_000_000D;
+    }
+
+    public static double maxRefreshMillis() {
+        return MAX_REFRESH_NANOS.get() / 1_000_000D;
+    }
+}
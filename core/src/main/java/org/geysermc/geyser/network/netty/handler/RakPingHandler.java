@@ -25,6 +25,7 @@
 
 package org.geysermc.geyser.network.netty.handler;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -34,18 +35,47 @@ import org.cloudburstmc.netty.channel.raknet.RakPong;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 import org.geysermc.geyser.network.netty.GeyserServer;
 
+import java.util.concurrent.atomic.LongAdder;
+
 @ChannelHandler.Sharable
 @RequiredArgsConstructor
 public class RakPingHandler extends SimpleChannelInboundHandler<RakPing> {
     public static final String NAME = "rak-ping-handler";
 
+    private static final LongAdder SERVED_PINGS = new LongAdder();
+    private static final LongAdder DROPPED_PINGS = new LongAdder();
+
     private final GeyserServer server;
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RakPing msg) {
+        if (!this.server.isPingAllowed(msg.getSender())) {
+            DROPPED_PINGS.increment();
+            return;
+        }
+
+        ByteBuf pongData = this.server.encodedPong(msg.getSender());
+        if (pongData == null) {
+            // Building the pong failed; the client pings again shortly
+            DROPPED_PINGS.increment();
+            return;
+        }
+
         long guid = ctx.channel().config().getOption(RakChannelOption.RAK_GUID);
 
-        RakPong pong = msg.reply(guid, this.server.onQuery(msg.getSender()).toByteBuf());
+        RakPong pong = msg.reply(guid, pongData);
         ctx.writeAndFlush(pong);
+        SERVED_PINGS.increment();
+    }
+
+    public static long servedPings() {
+        return SERVED_PINGS.sum();
+    }
+
+    /**
+     * @return the amount of pings that were not answered, either because of the rate limit or because no pong could be built
+     */
+    public static long droppedPings() {
+        return DROPPED_PINGS.sum();
     }
 }
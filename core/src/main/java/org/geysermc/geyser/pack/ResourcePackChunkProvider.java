@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.pack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.api.pack.PackCodec;
+import org.geysermc.geyser.api.pack.ResourcePack;
+import org.geysermc.geyser.pack.path.GeyserPathPackCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads the chunks of resource packs that are sent to Bedrock players.
+ * <p>
+ * By default, every chunk request opens the pack and copies the chunk out of it. If mapping is enabled, resource packs
+ * stored as files are memory-mapped once and every chunk is a slice of that mapping, so a join wave does not open
+ * the same file thousands of times. The chunks following a requested chunk are then loaded into memory in the background,
+ * as the client will request them next.
+ */
+public final class ResourcePackChunkProvider {
+    /**
+     * How many chunks after a requested chunk are loaded ahead of time.
+     */
+    private static final int READ_AHEAD_CHUNKS = 4;
+
+    private static final Map<Path, MappedPack> MAPPED_PACKS = new ConcurrentHashMap<>();
+    private static ExecutorService READ_AHEAD_EXECUTOR = null;
+
+    private static final LongAdder BYTES_SERVED = new LongAdder();
+    private static final LongAdder CHUNKS_SERVED = new LongAdder();
+    private static final AtomicInteger OPEN_FILES = new AtomicInteger();
+    private static final LongAdder DOWNLOADS = new LongAdder();
+    private static final LongAdder DOWNLOAD_NANOS = new LongAdder();
+    private static final AtomicLong MAX_DOWNLOAD_NANOS = new AtomicLong();
+
+    private ResourcePackChunkProvider() {
+    }
+
+    /**
+     * (Re)initializes the provider.
+     *
+     * @param mapped whether resource pack files should be memory-mapped
+     */
+    public static void init(boolean mapped) {
+        shutdown();
+        if (mapped) {
+            READ_AHEAD_EXECUTOR = Executors.newSingleThreadExecutor(new DefaultThreadFactory("Geyser Resource Pack Read Ahead Thread", true));
+        }
+    }
+
+    public static void shutdown() {
+        if (READ_AHEAD_EXECUTOR != null) {
+            READ_AHEAD_EXECUTOR.shutdown();
+            READ_AHEAD_EXECUTOR = null;
+        }
+        // The mappings themselves are released once they are no longer referenced
+        MAPPED_PACKS.clear();
+    }
+
+    /**
+     * Reads one chunk of a resource pack.
+     *
+     * @param pack the resource pack
+     * @param chunkIndex the index of the chunk, each chunk being {@link GeyserResourcePack#CHUNK_SIZE} bytes long
+     * @return the data of the chunk, which is empty if the index is negative or beyond the end of the pack
+     */
+    public static ByteBuf readChunk(ResourcePack pack, int chunkIndex) throws IOException {
+        PackCodec codec = pack.codec();
+        long offset = (long) chunkIndex * GeyserResourcePack.CHUNK_SIZE;
+        long size = codec.size();
+        if (chunkIndex < 0 || offset >= size) {
+            // The client asked for a chunk that does not exist
+            return Unpooled.EMPTY_BUFFER;
+        }
+        int length = (int) Math.min(size - offset, GeyserResourcePack.CHUNK_SIZE);
+        if (length <= 0) {
+            return Unpooled.EMPTY_BUFFER;
+        }
+
+        ByteBuf data = null;
+        if (READ_AHEAD_EXECUTOR != null && codec instanceof GeyserPathPackCodec pathCodec) {
+            MappedByteBuffer mapped = map(pathCodec, size);
+            if (mapped != null) {
+                data = Unpooled.wrappedBuffer(mapped.slice((int) offset, length));
+                readAhead(mapped, (int) offset + length);
+            }
+        }
+        if (data == null) {
+            data = read(pack, codec, offset, length);
+        }
+
+        BYTES_SERVED.add(length);
+        CHUNKS_SERVED.increment();
+        return data;
+    }
+
+    private static ByteBuf read(ResourcePack pack, PackCodec codec, long offset, int length) throws IOException {
+        byte[] packData = new byte[length];
+        OPEN_FILES.incrementAndGet();
+        try (SeekableByteChannel channel = codec.serialize(pack)) {
+            channel.position(offset);
+            ByteBuffer buffer = ByteBuffer.wrap(packData);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Keep reading until the chunk is full
+            }
+        } finally {
+            OPEN_FILES.decrementAndGet();
+        }
+        return Unpooled.wrappedBuffer(packData);
+    }
+
+    /**
+     * @return the mapping of the whole pack, or null if it cannot be mapped
+     */
+    private static @Nullable MappedByteBuffer map(GeyserPathPackCodec codec, long size) {
+        if (size > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        Path path = codec.path();
+        MappedPack mappedPack = MAPPED_PACKS.get(path);
+        if (mappedPack != null && mappedPack.size() == size) {
+            return mappedPack.buffer();
+        }
+
+        // Either this pack has not been mapped yet, or it changed since
+        OPEN_FILES.incrementAndGet();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            MAPPED_PACKS.put(path, new MappedPack(buffer, size));
+            return buffer;
+        } catch (IOException e) {
+            GeyserImpl.getInstance().getLogger().error("Could not map resource pack " + path + "; reading it per chunk instead", e);
+            return null;
+        } finally {
+            OPEN_FILES.decrementAndGet();
+        }
+    }
+
+    private static void readAhead(MappedByteBuffer mapped, int offset) {
+        int length = Math.min(mapped.capacity() - offset, READ_AHEAD_CHUNKS * GeyserResourcePack.CHUNK_SIZE);
+        ExecutorService executor = READ_AHEAD_EXECUTOR;
+        if (length <= 0 || executor == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> mapped.slice(offset, length).load());
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Records the time a player took to download all resource packs they requested.
+     */
+    public static void recordDownload(long nanos) {
+        DOWNLOADS.increment();
+        DOWNLOAD_NANOS.add(nanos);
+        MAX_DOWNLOAD_NANOS.accumulateAndGet(nanos, Math::max);
+    }
+
+    public static boolean isMapped() {
+        return READ_AHEAD_EXECUTOR != null;
+    }
+
+    public static long bytesServed() {
+        return BYTES_SERVED.sum();
+    }
+
+    public static long chunksServed() {
+        return CHUNKS_SERVED.sum();
+    }
+
+    /**
+     * @return the amount of resource pack files that are currently open for reading
+     */
+    public static int openFiles() {
+        return OPEN_FILES.get();
+    }
+
+    public static int mappedPacks() {
+        return MAPPED_PACKS.size();
+    }
+
+    public static long downloads() {
+        return DOWNLOADS.sum();
+    }
+
+    public static double averageDownloadMillis() {
+        long count = DOWNLOADS.sum();
+        return count == 0 ? 0 : DOWNLOAD_NANOS.sum() / (double) count / 1_000_000D;
+    }
+
+    public static double maxDownloadMillis() {
+        return MAX_DOWNLOAD_NANOS.get() / 1_000_000D;
+    }
+
+    private record MappedPack(MappedByteBuffer buffer, long size) {
+    }
+}
@@ -31,9 +31,11 @@ import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.Clientb
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundLightUpdatePacket;
 import io.netty.channel.EventLoop;
 import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
 import org.geysermc.geyser.registry.loader.RegistryLoaders;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.text.GeyserLocale;
+import org.geysermc.geyser.translator.protocol.PacketTranslationStats;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 
 import java.util.Collections;
@@ -85,12 +87,27 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
             return;
         }
 
+        ChunkTranslationPipeline chunkPipeline = session.getChunkTranslationPipeline();
+        if (chunkPipeline != null && translator.isOrderedWithChunks() && chunkPipeline.pending() != 0) {
+            chunkPipeline.runInOrder(() -> invokeTranslator(session, translator, packet));
+            return;
+        }
+
+        invokeTranslator(session, translator, packet);
+    }
+
+    private <P extends T> void invokeTranslator(GeyserSession session, PacketTranslator<P> translator, P packet) {
+        boolean timing = PacketTranslationStats.isTiming();
+        long start = timing ? System.nanoTime() : 0;
         try {
             translator.translate(session, packet);
         } catch (Throwable ex) {
             GeyserImpl.getInstance().getLogger().error(GeyserLocale.getLocaleStringLog("geyser.network.translator.packet.failed", packet.getClass().getSimpleName()), ex);
             ex.printStackTrace();
         }
+        if (timing) {
+            PacketTranslationStats.record(session, packet.getClass(), System.nanoTime() - start);
+        }
     }
 
     public static <T> PacketTranslatorRegistry<T> create() {
@@ -180,8 +180,13 @@ public final class Registries {
 
     static {
         PacketRegistryPopulator.populate();
+        // Also populates the block registries
+        long itemStart = System.currentTimeMillis();
         ItemRegistryPopulator.populate();
+        long recipeStart = System.currentTimeMillis();
         RecipeRegistryPopulator.populate();
+        GeyserImpl.getInstance().getLogger().debug("Populated items in " + (recipeStart - itemStart) + "ms and recipes in "
+                + (System.currentTimeMillis() - recipeStart) + "ms");
 
         // Create registries that require other registries to load first
         POTION_MIXES = VersionedRegistry.create(PotionMixRegistryLoader::new);
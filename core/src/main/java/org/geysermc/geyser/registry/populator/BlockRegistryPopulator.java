@@ -56,9 +56,12 @@ import org.geysermc.geyser.registry.type.GeyserBedrockBlock;
 import org.geysermc.geyser.util.BlockUtils;
 
 import java.io.DataInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -125,29 +128,28 @@ public final class BlockRegistryPopulator {
         //noinspection UnstableApiUsage
         Interner<NbtMap> statesInterner = Interners.newStrongInterner();
 
+        // Reading the palettes is the slow part and does not touch any registries, so read all of them at once.
+        // Everything after is kept in order, as it registers into shared registries.
+        Map<ObjectIntPair<String>, CompletableFuture<List<NbtMap>>> vanillaPalettes = new Object2ObjectOpenHashMap<>();
         for (ObjectIntPair<String> palette : blockMappers.keySet()) {
-            int protocolVersion = palette.valueInt();
-            List<NbtMap> vanillaBlockStates;
-            List<NbtMap> blockStates;
-            try (InputStream stream = GeyserImpl.getInstance().getBootstrap().getResourceOrThrow(String.format("bedrock/block_palette.%s.nbt", palette.key()));
-                 NBTInputStream nbtInputStream = new NBTInputStream(new DataInputStream(new GZIPInputStream(stream)), true, true)) {
-                NbtMap blockPalette = (NbtMap) nbtInputStream.readTag();
-
-                vanillaBlockStates = new ArrayList<>(blockPalette.getList("blocks", NbtType.COMPOUND));
-                for (int i = 0; i < vanillaBlockStates.size(); i++) {
-                    NbtMapBuilder builder = vanillaBlockStates.get(i).toBuilder();
-                    builder.remove("version"); // Remove all nbt tags which are not needed for differentiating states
-                    builder.remove("name_hash"); // Quick workaround - was added in 1.19.20
-                    builder.remove("network_id"); // Added in 1.19.80 - ????
-                    //noinspection UnstableApiUsage
-                    builder.putCompound("states", statesInterner.intern((NbtMap) builder.remove("states")));
-                    vanillaBlockStates.set(i, builder.build());
+            vanillaPalettes.put(palette, CompletableFuture.supplyAsync(() -> {
+                try {
+                    return readBlockPalette(palette.key(), statesInterner);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
                 }
+            }));
+        }
 
-                blockStates = new ArrayList<>(vanillaBlockStates);
-            } catch (Exception e) {
-                throw new AssertionError("Unable to get blocks from runtime block states", e);
+        for (ObjectIntPair<String> palette : blockMappers.keySet()) {
+            int protocolVersion = palette.valueInt();
+            List<NbtMap> vanillaBlockStates;
+            try {
+                vanillaBlockStates = vanillaPalettes.get(palette).join();
+            } catch (CompletionException e) {
+                throw new AssertionError("Unable to get blocks from runtime block states", e.getCause());
             }
+            List<NbtMap> blockStates = new ArrayList<>(vanillaBlockStates);
 
             List<BlockPropertyData> customBlockProperties = new ArrayList<>();
             List<NbtMap> customBlockStates = new ArrayList<>();
@@ -359,6 +361,29 @@ public final class BlockRegistryPopulator {
         }
     }
 
+    /**
+     * Reads a Bedrock block palette, without any tags that are not needed to tell states apart.
+     * Safe to call from any thread.
+     */
+    private static List<NbtMap> readBlockPalette(String version, Interner<NbtMap> statesInterner) throws IOException {
+        try (InputStream stream = GeyserImpl.getInstance().getBootstrap().getResourceOrThrow(String.format("bedrock/block_palette.%s.nbt", version));
+             NBTInputStream nbtInputStream = new NBTInputStream(new DataInputStream(new GZIPInputStream(stream)), true, true)) {
+            NbtMap blockPalette = (NbtMap) nbtInputStream.readTag();
+
+            List<NbtMap> vanillaBlockStates = new ArrayList<>(blockPalette.getList("blocks", NbtType.COMPOUND));
+            for (int i = 0; i < vanillaBlockStates.size(); i++) {
+                NbtMapBuilder builder = vanillaBlockStates.get(i).toBuilder();
+                builder.remove("version"); // Remove all nbt tags which are not needed for differentiating states
+                builder.remove("name_hash"); // Quick workaround - was added in 1.19.20
+                builder.remove("network_id"); // Added in 1.19.80 - ????
+                //noinspection UnstableApiUsage
+                builder.putCompound("states", statesInterner.intern((NbtMap) builder.remove("states")));
+                vanillaBlockStates.set(i, builder.build());
+            }
+            return vanillaBlockStates;
+        }
+    }
+
     private static void registerJavaBlocks() {
         JsonNode blocksJson;
         try (InputStream stream = GeyserImpl.getInstance().getBootstrap().getResourceOrThrow("mappings/blocks.json")) {
@@ -65,6 +65,8 @@ import org.geysermc.geyser.registry.type.*;
 
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -117,15 +119,28 @@ public class ItemRegistryPopulator {
         // We can reduce some operations as Java information is the same across all palette versions
         boolean firstMappingsPass = true;
 
-        /* Load item palette */
+        // Parse all item palettes at once; the mappings below register into shared registries and stay in order
+        TypeReference<List<PaletteItem>> paletteEntriesType = new TypeReference<>() {};
+        List<CompletableFuture<List<PaletteItem>>> paletteEntries = new ArrayList<>(paletteVersions.size());
         for (PaletteVersion palette : paletteVersions) {
-            TypeReference<List<PaletteItem>> paletteEntriesType = new TypeReference<>() {};
+            paletteEntries.add(CompletableFuture.supplyAsync(() -> {
+                try (InputStream stream = bootstrap.getResourceOrThrow(String.format("bedrock/runtime_item_states.%s.json", palette.version()))) {
+                    return GeyserImpl.JSON_MAPPER.readValue(stream, paletteEntriesType);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+
+        /* Load item palette */
+        for (int paletteIndex = 0; paletteIndex < paletteVersions.size(); paletteIndex++) {
+            PaletteVersion palette = paletteVersions.get(paletteIndex);
 
             List<PaletteItem> itemEntries;
-            try (InputStream stream = bootstrap.getResourceOrThrow(String.format("bedrock/runtime_item_states.%s.json", palette.version()))) {
-                itemEntries = GeyserImpl.JSON_MAPPER.readValue(stream, paletteEntriesType);
-            } catch (Exception e) {
-                throw new AssertionError("Unable to load Bedrock runtime item IDs", e);
+            try {
+                itemEntries = paletteEntries.get(paletteIndex).join();
+            } catch (CompletionException e) {
+                throw new AssertionError("Unable to load Bedrock runtime item IDs", e.getCause());
             }
 
             // Used for custom items
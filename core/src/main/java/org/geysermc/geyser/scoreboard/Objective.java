@@ -27,11 +27,17 @@ package org.geysermc.geyser.scoreboard;
 
 import com.github.steveice10.mc.protocol.data.game.scoreboard.ScoreboardPosition;
 import com.github.steveice10.mc.protocol.data.game.scoreboard.TeamColor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
@@ -50,6 +56,11 @@ public final class Objective {
     private int type = 0; // 0 = integer, 1 = heart
 
     private Map<String, Score> scores = new ConcurrentHashMap<>();
+    /**
+     * The scores that have changed since the last scoreboard update.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<Score> changedScores = ConcurrentHashMap.newKeySet();
 
     private Objective(Scoreboard scoreboard) {
         this.id = scoreboard.getNextId().getAndIncrement();
@@ -88,7 +99,7 @@ public final class Objective {
     public void registerScore(String id, int score) {
         if (!scores.containsKey(id)) {
             long scoreId = scoreboard.getNextId().getAndIncrement();
-            Score scoreObject = new Score(scoreId, id)
+            Score scoreObject = new Score(this, scoreId, id)
                     .setScore(score)
                     .setTeam(scoreboard.getTeamFor(id))
                     .setUpdateType(UpdateType.ADD);
@@ -117,7 +128,48 @@ public final class Objective {
      * Used internally to remove a score from the score map
      */
     public void removeScore0(String id) {
-        scores.remove(id);
+        Score removed = scores.remove(id);
+        if (removed != null) {
+            changedScores.remove(removed);
+        }
+    }
+
+    void markChanged(Score score) {
+        changedScores.add(score);
+    }
+
+    /**
+     * Marks the score of this entity as changed, if this objective has one.
+     */
+    void markChanged(String entity) {
+        Map<String, Score> scores = this.scores;
+        if (scores != null) {
+            Score score = scores.get(entity);
+            if (score != null) {
+                changedScores.add(score);
+            }
+        }
+    }
+
+    /**
+     * Returns the scores that have to be checked in this scoreboard update, and resets which scores have changed.
+     *
+     * @param all whether all scores have to be checked, for example because the objective is sent again
+     */
+    Collection<Score> pollChangedScores(boolean all) {
+        if (all) {
+            // Clear before reading the scores, so changes made in between are checked again next update
+            changedScores.clear();
+            return scores.values();
+        }
+
+        List<Score> changed = new ArrayList<>(changedScores.size());
+        Iterator<Score> iterator = changedScores.iterator();
+        while (iterator.hasNext()) {
+            changed.add(iterator.next());
+            iterator.remove();
+        }
+        return changed;
     }
 
     public Objective setDisplayName(String displayName) {
@@ -149,6 +201,7 @@ public final class Objective {
      */
     public void pendingRemove() {
         updateType = UpdateType.REMOVE;
+        scoreboard.markRemoved(this);
     }
 
     public @Nullable TeamColor getTeamColor() {
@@ -177,5 +230,6 @@ public final class Objective {
         active = false;
         updateType = UpdateType.REMOVE;
         scores = null;
+        changedScores.clear();
     }
 }
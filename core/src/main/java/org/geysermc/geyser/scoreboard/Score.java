@@ -32,6 +32,7 @@ import lombok.experimental.Accessors;
 @Getter
 @Accessors(chain = true)
 public final class Score {
+    private final Objective objective;
     private final long id;
     private final String name;
     private ScoreInfo cachedInfo;
@@ -45,7 +46,8 @@ public final class Score {
      */
     private Score.ScoreData cachedData;
 
-    public Score(long id, String name) {
+    public Score(Objective objective, long id, String name) {
+        this.objective = objective;
         this.id = id;
         this.name = name;
         this.currentData = new ScoreData();
@@ -93,10 +95,11 @@ public final class Score {
     }
 
     public Score setUpdateType(UpdateType updateType) {
+        currentData.updateType = updateType;
         if (updateType != UpdateType.NOTHING) {
             currentData.changed = true;
+            objective.markChanged(this);
         }
-        currentData.updateType = updateType;
         return this;
     }
 
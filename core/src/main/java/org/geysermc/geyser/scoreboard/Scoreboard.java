@@ -74,6 +74,19 @@ public final class Scoreboard {
     @Getter
     private final Map<String, Team> playerToTeam = new Object2ObjectOpenHashMap<>();
 
+    /**
+     * Objectives that are pending removal.
+     */
+    private final Set<Objective> removedObjectives = ConcurrentHashMap.newKeySet();
+    /**
+     * Teams that have changed since the last update. The scores of their entities have to be checked.
+     */
+    private final Set<Team> changedTeams = ConcurrentHashMap.newKeySet();
+    /**
+     * Teams whose changes are being sent in the current update.
+     */
+    private final List<Team> preparedTeams = new ArrayList<>();
+
     private int lastAddScoreCount = 0;
     private int lastRemoveScoreCount = 0;
 
@@ -90,6 +103,7 @@ public final class Scoreboard {
 
             deleteObjective(objective, false);
         }
+        removedObjectives.clear();
     }
 
     public @Nullable Objective registerNewObjective(String objectiveId) {
@@ -152,6 +166,7 @@ public final class Scoreboard {
         team = new Team(this, teamName);
         team.addEntities(players);
         teams.put(teamName, team);
+        markChanged(team);
 
         // Update command parameters - is safe to send even if the command enum doesn't exist on the client (as of 1.19.51)
         if (ADD_TEAM_SUGGESTIONS) {
@@ -160,30 +175,34 @@ public final class Scoreboard {
         return team;
     }
 
-    public void onUpdate() {
+    /**
+     * Sends everything that changed since the last update. Only objectives, teams and scores that marked themselves as
+     * changed are checked, so large but mostly static scoreboards are cheap to update.
+     */
+    public synchronized void onUpdate() {
         List<ScoreInfo> addScores = new ArrayList<>(lastAddScoreCount);
         List<ScoreInfo> removeScores = new ArrayList<>(lastRemoveScoreCount);
-        List<Objective> removedObjectives = new ArrayList<>();
-
-        Team playerTeam = getTeamFor(session.getPlayerEntity().getUsername());
-        Objective correctSidebar = null;
 
-        for (Objective objective : objectives.values()) {
-            // objective has been deleted
-            if (objective.getUpdateType() == REMOVE) {
-                removedObjectives.add(objective);
-                continue;
-            }
-
-            // there's nothing we can do with inactive objectives
-            // after checking if the objective has been deleted,
-            // except waiting for the objective to become activated (:
-            if (!objective.isActive()) {
-                continue;
+        // Deletion must be handled before the active objectives are handled - otherwise if a scoreboard display is changed before the current
+        // scoreboard is removed, the client can crash
+        Iterator<Objective> removedIterator = removedObjectives.iterator();
+        while (removedIterator.hasNext()) {
+            Objective objective = removedIterator.next();
+            removedIterator.remove();
+            // The objective may have been replaced in the meantime
+            if (objective.getUpdateType() == REMOVE && objectives.get(objective.getObjectiveName()) == objective) {
+                deleteObjective(objective, true);
             }
+        }
 
-            if (playerTeam != null && playerTeam.getColor() == objective.getTeamColor()) {
-                correctSidebar = objective;
+        Team playerTeam = getTeamFor(session.getPlayerEntity().getUsername());
+        Objective correctSidebar = null;
+        if (playerTeam != null) {
+            // Every active objective is displayed in a slot
+            for (Objective objective : objectiveSlots.values()) {
+                if (objective.isActive() && objective.getUpdateType() != REMOVE && playerTeam.getColor() == objective.getTeamColor()) {
+                    correctSidebar = objective;
+                }
             }
         }
 
@@ -191,25 +210,32 @@ public final class Scoreboard {
             correctSidebar = objectiveSlots.get(ScoreboardPosition.SIDEBAR);
         }
 
-        for (Objective objective : removedObjectives) {
-            // Deletion must be handled before the active objectives are handled - otherwise if a scoreboard display is changed before the current
-            // scoreboard is removed, the client can crash
-            deleteObjective(objective, true);
+        Objective playerList = objectiveSlots.get(ScoreboardPosition.PLAYER_LIST);
+        Objective belowName = objectiveSlots.get(ScoreboardPosition.BELOW_NAME);
+
+        // The display names of all scores of a changed team have to be checked
+        Iterator<Team> teamIterator = changedTeams.iterator();
+        while (teamIterator.hasNext()) {
+            Team team = teamIterator.next();
+            teamIterator.remove();
+            for (String entity : team.getEntities()) {
+                markChanged(playerList, entity);
+                markChanged(correctSidebar, entity);
+                markChanged(belowName, entity);
+            }
         }
 
-        handleObjective(objectiveSlots.get(ScoreboardPosition.PLAYER_LIST), addScores, removeScores);
+        handleObjective(playerList, addScores, removeScores);
         handleObjective(correctSidebar, addScores, removeScores);
-        handleObjective(objectiveSlots.get(ScoreboardPosition.BELOW_NAME), addScores, removeScores);
-
-        Iterator<Team> teamIterator = teams.values().iterator();
-        while (teamIterator.hasNext()) {
-            Team current = teamIterator.next();
+        handleObjective(belowName, addScores, removeScores);
 
-            switch (current.getCachedUpdateType()) {
-                case ADD, UPDATE -> current.markUpdated();
-                case REMOVE -> teamIterator.remove();
+        for (Team team : preparedTeams) {
+            switch (team.getCachedUpdateType()) {
+                case ADD, UPDATE -> team.markUpdated();
+                case REMOVE -> teams.remove(team.getId(), team);
             }
         }
+        preparedTeams.clear();
 
         if (!removeScores.isEmpty()) {
             SetScorePacket setScorePacket = new SetScorePacket();
@@ -229,14 +255,26 @@ public final class Scoreboard {
         lastRemoveScoreCount = removeScores.size();
     }
 
+    private static void markChanged(@Nullable Objective objective, String entity) {
+        if (objective != null && objective.getUpdateType() != REMOVE) {
+            objective.markChanged(entity);
+        }
+    }
+
     private void handleObjective(Objective objective, List<ScoreInfo> addScores, List<ScoreInfo> removeScores) {
         if (objective == null || objective.getUpdateType() == REMOVE) {
             return;
         }
 
+        boolean objectiveAdd = objective.getUpdateType() == ADD;
+        boolean objectiveUpdate = objective.getUpdateType() == UPDATE;
+
+        // A new or updated objective is sent again in full
+        Collection<Score> scores = objective.pollChangedScores(objectiveAdd || objectiveUpdate);
+
         // hearts can't hold teams, so we treat them differently
         if (objective.getType() == 1) {
-            for (Score score : objective.getScores().values()) {
+            for (Score score : scores) {
                 boolean update = score.shouldUpdate();
 
                 if (update) {
@@ -253,10 +291,7 @@ public final class Scoreboard {
             return;
         }
 
-        boolean objectiveAdd = objective.getUpdateType() == ADD;
-        boolean objectiveUpdate = objective.getUpdateType() == UPDATE;
-
-        for (Score score : objective.getScores().values()) {
+        for (Score score : scores) {
             if (score.getUpdateType() == REMOVE) {
                 ScoreInfo cachedInfo = score.getCachedInfo();
                 // cachedInfo can be null here when ScoreboardUpdater is being used and a score is added and
@@ -266,7 +301,7 @@ public final class Scoreboard {
                 }
                 // score is pending to be removed, so we can remove it from the objective
                 objective.removeScore0(score.getName());
-                break;
+                continue;
             }
 
             Team team = score.getTeam();
@@ -325,6 +360,7 @@ public final class Scoreboard {
         if (remove) {
             objectives.remove(objective.getObjectiveName());
         }
+        removedObjectives.remove(objective);
         objectiveSlots.remove(objective.getDisplaySlot(), objective);
 
         objective.removed();
@@ -377,6 +413,21 @@ public final class Scoreboard {
         }
     }
 
+    void markChanged(Team team) {
+        changedTeams.add(team);
+    }
+
+    void markRemoved(Objective objective) {
+        removedObjectives.add(objective);
+    }
+
+    /**
+     * Called when a team's changes are about to be sent to the client.
+     */
+    void markPrepared(Team team) {
+        preparedTeams.add(team);
+    }
+
     @Contract("-> new")
     public Map<String, Set<CommandEnumConstraint>> getTeamNames() {
         return teams.keySet().stream()
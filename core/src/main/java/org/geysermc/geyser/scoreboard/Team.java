@@ -105,6 +105,13 @@ public final class Team {
             }
             scoreboard.getPlayerToTeam().remove(name, this);
         }
+
+        // The scores of these entities have to lose their team
+        for (Objective objective : scoreboard.getObjectives()) {
+            for (String removedEntity : removed) {
+                objective.markChanged(removedEntity);
+            }
+        }
         return removed;
     }
 
@@ -158,6 +165,7 @@ public final class Team {
             return;
         }
         updating = true;
+        scoreboard.markPrepared(this);
 
         if (cachedData == null) {
             cachedData = new TeamData();
@@ -181,10 +189,11 @@ public final class Team {
     }
 
     public Team setUpdateType(UpdateType updateType) {
+        currentData.updateType = updateType;
         if (updateType != UpdateType.NOTHING) {
             currentData.changed = true;
+            scoreboard.markChanged(this);
         }
-        currentData.updateType = updateType;
         return this;
     }
 
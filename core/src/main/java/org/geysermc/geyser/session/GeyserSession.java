@@ -114,6 +114,7 @@ import org.geysermc.geyser.command.GeyserCommandSource;
 import org.geysermc.geyser.configuration.EmoteOffhandWorkaroundOption;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
 import org.geysermc.geyser.entity.EntityDefinitions;
+import org.geysermc.geyser.entity.EntityMovementThrottler;
 import org.geysermc.geyser.entity.attribute.GeyserAttributeType;
 import org.geysermc.geyser.entity.type.Entity;
 import org.geysermc.geyser.entity.type.ItemFrameEntity;
@@ -128,6 +129,7 @@ import org.geysermc.geyser.inventory.recipe.GeyserStonecutterData;
 import org.geysermc.geyser.item.Items;
 import org.geysermc.geyser.level.JavaDimension;
 import org.geysermc.geyser.level.WorldManager;
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
 import org.geysermc.geyser.level.physics.CollisionManager;
 import org.geysermc.geyser.network.netty.LocalSession;
 import org.geysermc.geyser.registry.Registries;
@@ -137,10 +139,12 @@ import org.geysermc.geyser.session.auth.AuthData;
 import org.geysermc.geyser.session.auth.BedrockClientData;
 import org.geysermc.geyser.session.cache.*;
 import org.geysermc.geyser.skin.FloodgateSkinUploader;
+import org.geysermc.geyser.skin.SkinStreamer;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.text.MinecraftLocale;
 import org.geysermc.geyser.text.TextDecoration;
 import org.geysermc.geyser.translator.inventory.InventoryTranslator;
+import org.geysermc.geyser.translator.protocol.PacketTranslationStats;
 import org.geysermc.geyser.translator.text.MessageTranslator;
 import org.geysermc.geyser.util.ChunkUtils;
 import org.geysermc.geyser.util.DimensionUtils;
@@ -202,6 +206,27 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     private final TagCache tagCache;
     private final WorldCache worldCache;
 
+    /**
+     * Translates chunks outside the event loop. Null if chunks are translated directly in the event loop.
+     */
+    @Nullable
+    private final ChunkTranslationPipeline chunkTranslationPipeline;
+    /**
+     * Merges and spreads out entity movement. Null if entity movement is sent straight away.
+     */
+    @Nullable
+    private final EntityMovementThrottler entityMovementThrottler;
+    /**
+     * How long packets of this session took to translate. Null if packet translation statistics are disabled.
+     */
+    @Nullable
+    private final PacketTranslationStats packetTranslationStats;
+    /**
+     * Streams tab list skins after the tab list itself. Null if tab list entries are sent with their skins.
+     */
+    @Nullable
+    private final SkinStreamer skinStreamer;
+
     @Setter
     private TeleportCache unconfirmedTeleport;
 
@@ -591,6 +616,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     public GeyserSession(GeyserImpl geyser, BedrockServerSession bedrockServerSession, EventLoop eventLoop) {
         this.geyser = geyser;
         this.upstream = new UpstreamSession(bedrockServerSession);
+        this.upstream.setPacketCoalescer(UpstreamPacketCoalescer.create(bedrockServerSession, eventLoop));
         this.eventLoop = eventLoop;
 
         this.erosionHandler = new GeyserboundHandshakePacketHandler(this);
@@ -608,6 +634,11 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         this.tagCache = new TagCache();
         this.worldCache = new WorldCache(this);
 
+        this.chunkTranslationPipeline = ChunkTranslationPipeline.create(this);
+        this.entityMovementThrottler = EntityMovementThrottler.create(this);
+        this.packetTranslationStats = PacketTranslationStats.create();
+        this.skinStreamer = SkinStreamer.create(this);
+
         this.worldBorder = new WorldBorder(this);
 
         this.collisionManager = new CollisionManager(this);
@@ -652,24 +683,32 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         // upstream.getSession().getHardcodedBlockingId().set(this.itemMappings.getStoredItems().shield().getBedrockId());
 
         if (GeyserImpl.getInstance().getConfig().isAddNonBedrockItems()) {
-            ItemComponentPacket componentPacket = new ItemComponentPacket();
-            componentPacket.getItems().addAll(itemMappings.getComponentItemData());
-            upstream.sendPacket(componentPacket);
+            JoinPacketCache.send(this, ItemComponentPacket.class, () -> {
+                ItemComponentPacket componentPacket = new ItemComponentPacket();
+                componentPacket.getItems().addAll(itemMappings.getComponentItemData());
+                return componentPacket;
+            });
         }
 
         ChunkUtils.sendEmptyChunks(this, playerEntity.getPosition().toInt(), 0, false);
 
-        BiomeDefinitionListPacket biomeDefinitionListPacket = new BiomeDefinitionListPacket();
-        biomeDefinitionListPacket.setDefinitions(Registries.BIOMES_NBT.get());
-        upstream.sendPacket(biomeDefinitionListPacket);
+        JoinPacketCache.send(this, BiomeDefinitionListPacket.class, () -> {
+            BiomeDefinitionListPacket biomeDefinitionListPacket = new BiomeDefinitionListPacket();
+            biomeDefinitionListPacket.setDefinitions(Registries.BIOMES_NBT.get());
+            return biomeDefinitionListPacket;
+        });
 
-        AvailableEntityIdentifiersPacket entityPacket = new AvailableEntityIdentifiersPacket();
-        entityPacket.setIdentifiers(Registries.BEDROCK_ENTITY_IDENTIFIERS.get());
-        upstream.sendPacket(entityPacket);
+        JoinPacketCache.send(this, AvailableEntityIdentifiersPacket.class, () -> {
+            AvailableEntityIdentifiersPacket entityPacket = new AvailableEntityIdentifiersPacket();
+            entityPacket.setIdentifiers(Registries.BEDROCK_ENTITY_IDENTIFIERS.get());
+            return entityPacket;
+        });
 
-        CreativeContentPacket creativePacket = new CreativeContentPacket();
-        creativePacket.setContents(this.itemMappings.getCreativeItems());
-        upstream.sendPacket(creativePacket);
+        JoinPacketCache.send(this, CreativeContentPacket.class, () -> {
+            CreativeContentPacket creativePacket = new CreativeContentPacket();
+            creativePacket.setContents(this.itemMappings.getCreativeItems());
+            return creativePacket;
+        });
 
         // Potion mixes are registered by default, as they are needed to be able to put ingredients into the brewing stand.
         CraftingDataPacket craftingDataPacket = new CraftingDataPacket();
@@ -1196,6 +1235,14 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
                 entity.tick();
             }
 
+            if (entityMovementThrottler != null) {
+                entityMovementThrottler.tick();
+            }
+
+            if (skinStreamer != null) {
+                skinStreamer.tick();
+            }
+
             if (armAnimationTicks >= 0) {
                 // As of 1.18.2 Java Edition, it appears that the swing time is dynamically updated depending on the
                 // player's effect status, but the animation can cut short if the duration suddenly decreases
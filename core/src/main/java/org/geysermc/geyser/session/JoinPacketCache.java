@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.session;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.UnknownPacket;
+import org.geysermc.geyser.GeyserImpl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Holds join packets that are the same for every player on the same Bedrock version, such as the biome definitions
+ * and creative inventory, in their encoded form.
+ * <p>
+ * These packets are large, so building and encoding them again for every player that joins is a lot of wasted work.
+ * Instead, the first player on each version has them encoded, and everyone after is sent the same bytes.
+ */
+public final class JoinPacketCache {
+    private static final Map<Key, EncodedPacket> PACKETS = new ConcurrentHashMap<>();
+    private static volatile boolean ENABLED = false;
+
+    private static final LongAdder HITS = new LongAdder();
+
+    /**
+     * (Re)initializes the cache. Must be called after the registries have been loaded.
+     */
+    public static void init(boolean enabled) {
+        ENABLED = enabled;
+        PACKETS.clear();
+    }
+
+    /**
+     * Sends a packet that is the same for every session on the same Bedrock version.
+     *
+     * @param type the class of the packet
+     * @param factory builds the packet if it has not been encoded for this version yet
+     */
+    public static <T extends BedrockPacket> void send(GeyserSession session, Class<T> type, Supplier<T> factory) {
+        if (!ENABLED) {
+            session.sendUpstreamPacket(factory.get());
+            return;
+        }
+
+        BedrockCodec codec = session.getUpstream().getSession().getCodec();
+        Key key = new Key(codec.getProtocolVersion(), type);
+        EncodedPacket encoded = PACKETS.get(key);
+        if (encoded == null) {
+            T packet = factory.get();
+            try {
+                ByteBuf payload = Unpooled.buffer();
+                codec.tryEncode(session.getUpstream().getCodecHelper(), payload, packet);
+                encoded = new EncodedPacket(codec.getPacketDefinition(type).getId(), Unpooled.unreleasableBuffer(payload.asReadOnly()));
+                PACKETS.putIfAbsent(key, encoded);
+            } catch (Exception e) {
+                GeyserImpl.getInstance().getLogger().debug("Could not encode " + type.getSimpleName() + " ahead of time: " + e);
+                session.sendUpstreamPacket(packet);
+                return;
+            }
+        } else {
+            HITS.increment();
+        }
+
+        UnknownPacket packet = new UnknownPacket();
+        packet.setPacketId(encoded.id());
+        // Every session reads from its own indexes of the shared bytes
+        packet.setPayload(encoded.payload().duplicate());
+        session.sendUpstreamPacket(packet);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static int size() {
+        return PACKETS.size();
+    }
+
+    /**
+     * @return the size of all encoded packets in bytes
+     */
+    public static long sizeInBytes() {
+        long bytes = 0;
+        for (EncodedPacket packet : PACKETS.values()) {
+            bytes += packet.payload().readableBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return how often an already encoded packet was sent
+     */
+    public static long hits() {
+        return HITS.sum();
+    }
+
+    private record Key(int protocolVersion, Class<? extends BedrockPacket> type) {
+    }
+
+    private record EncodedPacket(int id, ByteBuf payload) {
+    }
+
+    private JoinPacketCache() {
+    }
+}
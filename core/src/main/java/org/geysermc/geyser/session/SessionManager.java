@@ -26,6 +26,7 @@
 package org.geysermc.geyser.session;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -46,6 +47,27 @@ public final class SessionManager {
      */
     @Getter
     private final Map<UUID, GeyserSession> sessions = new ConcurrentHashMap<>();
+    /**
+     * Players who are currently in-game, by XUID.
+     */
+    private final Map<String, GeyserSession> sessionsByXuid = new ConcurrentHashMap<>();
+    /**
+     * Players who are currently in-game, by lowercase Bedrock username.
+     */
+    private final Map<String, GeyserSession> sessionsByBedrockUsername = new ConcurrentHashMap<>();
+    /**
+     * Players who are currently in-game, by the lowercase Java username they logged in with. The username of a player
+     * can change later, for example through nickname plugins, which this does not follow.
+     */
+    private final Map<String, GeyserSession> sessionsByJavaUsername = new ConcurrentHashMap<>();
+    /**
+     * The key every session was stored under in {@link #sessionsByJavaUsername}, so it can be removed after a rename.
+     */
+    private final Map<GeyserSession, String> javaUsernameKeys = new ConcurrentHashMap<>();
+    /**
+     * A live view over all pending and active sessions.
+     */
+    private final Iterable<GeyserSession> allSessionsView = Iterables.unmodifiableIterable(Iterables.concat(pendingSessions, sessions.values()));
 
     /**
      * Called once the player has successfully authenticated to the Geyser server.
@@ -60,6 +82,14 @@ public final class SessionManager {
     public void addSession(UUID uuid, GeyserSession session) {
         pendingSessions.remove(session);
         sessions.put(uuid, session);
+        sessionsByXuid.put(session.xuid(), session);
+        sessionsByBedrockUsername.put(session.bedrockUsername().toLowerCase(Locale.ROOT), session);
+        String javaUsername = session.javaUsername();
+        if (javaUsername != null) {
+            String key = javaUsername.toLowerCase(Locale.ROOT);
+            sessionsByJavaUsername.put(key, session);
+            javaUsernameKeys.put(session, key);
+        }
     }
 
     public void removeSession(GeyserSession session) {
@@ -67,17 +97,39 @@ public final class SessionManager {
         if (uuid == null || sessions.remove(uuid) == null) {
             // Connection was likely pending
             pendingSessions.remove(session);
+            return;
+        }
+        // Only remove the session itself, in case another session with the same name has already replaced it
+        sessionsByXuid.remove(session.xuid(), session);
+        sessionsByBedrockUsername.remove(session.bedrockUsername().toLowerCase(Locale.ROOT), session);
+        String javaUsernameKey = javaUsernameKeys.remove(session);
+        if (javaUsernameKey != null) {
+            sessionsByJavaUsername.remove(javaUsernameKey, session);
         }
     }
 
     public @Nullable GeyserSession sessionByXuid(@NonNull String xuid) {
         Objects.requireNonNull(xuid);
-        for (GeyserSession session : sessions.values()) {
-            if (session.xuid().equals(xuid)) {
-                return session;
-            }
-        }
-        return null;
+        return sessionsByXuid.get(xuid);
+    }
+
+    public @Nullable GeyserSession sessionByJavaUuid(@NonNull UUID uuid) {
+        Objects.requireNonNull(uuid);
+        return sessions.get(uuid);
+    }
+
+    /**
+     * @param username the Bedrock username of an in-game player, in any case
+     */
+    public @Nullable GeyserSession sessionByBedrockUsername(@NonNull String username) {
+        return sessionsByBedrockUsername.get(username.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param username the Java username an in-game player logged in with, in any case
+     */
+    public @Nullable GeyserSession sessionByJavaUsername(@NonNull String username) {
+        return sessionsByJavaUsername.get(username.toLowerCase(Locale.ROOT));
     }
 
     /**
@@ -90,6 +142,15 @@ public final class SessionManager {
                 .build();
     }
 
+    /**
+     * A view over all pending and active sessions that doesn't copy them. Iteration is weakly consistent: sessions
+     * that join or leave while iterating may or may not be included, and a session may be seen twice while it moves
+     * from pending to active.
+     */
+    public Iterable<GeyserSession> allSessionsView() {
+        return allSessionsView;
+    }
+
     public void disconnectAll(String message) {
         Collection<GeyserSession> sessions = getAllSessions();
         for (GeyserSession session : sessions) {
@@ -103,4 +164,11 @@ public final class SessionManager {
     public int size() {
         return pendingSessions.size() + sessions.size();
     }
+
+    /**
+     * @return the amount of sessions that are in-game, excluding those pending.
+     */
+    public int activeSize() {
+        return sessions.size();
+    }
 }
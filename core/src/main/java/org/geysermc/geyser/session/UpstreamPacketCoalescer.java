@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import io.netty.channel.EventLoop;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.protocol.bedrock.BedrockServerSession;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityAbsolutePacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityDeltaPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SetEntityDataPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SetEntityMotionPacket;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Holds the Bedrock packets queued during one turn of the session's event loop, and merges packets that would be
+ * made redundant by a later one - for example two movements of the same entity. The remaining packets are handed
+ * to the Bedrock session together once the current task has finished.
+ * <p>
+ * Packets are only merged within a run of packets of the same kind. Once a packet of another kind is queued, nothing
+ * before it is merged with anything after it, so the order in which packets are applied by the client does not change.
+ */
+public final class UpstreamPacketCoalescer {
+    /**
+     * Rough sizes of packets once encoded, for estimating how many bytes are saved
+     */
+    private static final int ESTIMATED_MOVE_ABSOLUTE_SIZE = 20;
+    private static final int ESTIMATED_MOVE_DELTA_SIZE = 16;
+    private static final int ESTIMATED_MOTION_SIZE = 16;
+    private static final int ESTIMATED_DATA_HEADER_SIZE = 6;
+    private static final int ESTIMATED_DATA_ENTRY_SIZE = 4;
+
+    private static boolean ENABLED = false;
+    private static long startTime = System.nanoTime();
+
+    private static final LongAdder COALESCED_PACKETS = new LongAdder();
+    private static final LongAdder BYTES_SAVED = new LongAdder();
+    private static final LongAdder BATCHES = new LongAdder();
+
+    private final EventLoop eventLoop;
+    private final BooleanSupplier connected;
+    private final Consumer<BedrockPacket> sender;
+    private final List<BedrockPacket> pending = new ArrayList<>();
+    /**
+     * Runtime entity ID to the index of its last packet of this kind in {@link #pending}
+     */
+    private final Long2IntMap movements = createIndex();
+    private final Long2IntMap entityData = createIndex();
+    private final Long2IntMap motions = createIndex();
+    /**
+     * The index of the kind of the last queued packet, or null if it could not be merged at all
+     */
+    private @Nullable Long2IntMap lastKind = null;
+    private boolean flushScheduled = false;
+
+    UpstreamPacketCoalescer(EventLoop eventLoop, BooleanSupplier connected, Consumer<BedrockPacket> sender) {
+        this.eventLoop = eventLoop;
+        this.connected = connected;
+        this.sender = sender;
+    }
+
+    public static void init(boolean enabled) {
+        ENABLED = enabled;
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * @return a new coalescer for this session, or null if packets should be handed to the Bedrock session directly
+     */
+    public static @Nullable UpstreamPacketCoalescer create(BedrockServerSession session, EventLoop eventLoop) {
+        return ENABLED ? new UpstreamPacketCoalescer(eventLoop, () -> session.getPeer().isConnected(), session::sendPacket) : null;
+    }
+
+    public void queue(BedrockPacket packet) {
+        if (!eventLoop.inEventLoop()) {
+            eventLoop.execute(() -> queue(packet));
+            return;
+        }
+
+        if (packet instanceof MoveEntityAbsolutePacket || packet instanceof MoveEntityDeltaPacket) {
+            queue(movements, runtimeEntityId(packet), packet);
+        } else if (packet instanceof SetEntityDataPacket dataPacket) {
+            queue(entityData, dataPacket.getRuntimeEntityId(), packet);
+        } else if (packet instanceof SetEntityMotionPacket motionPacket) {
+            queue(motions, motionPacket.getRuntimeEntityId(), packet);
+        } else {
+            // Nothing queued before this packet may be moved after it
+            clearIndexes();
+            lastKind = null;
+            pending.add(packet);
+        }
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            eventLoop.execute(this::flush);
+        }
+    }
+
+    private void queue(Long2IntMap index, long runtimeEntityId, BedrockPacket packet) {
+        if (index != lastKind) {
+            // A new run of packets starts; merging with a packet before the previous run would reorder them
+            clearIndexes();
+            lastKind = index;
+        }
+
+        int previousIndex = index.get(runtimeEntityId);
+        if (previousIndex != -1) {
+            BedrockPacket merged = merge(pending.get(previousIndex), packet);
+            if (merged != null) {
+                pending.set(previousIndex, merged);
+                COALESCED_PACKETS.increment();
+                return;
+            }
+        }
+        index.put(runtimeEntityId, pending.size());
+        pending.add(packet);
+    }
+
+    /**
+     * Hands all queued packets to the Bedrock session. Must be called from the event loop.
+     */
+    public void flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        if (connected.getAsBoolean()) {
+            for (BedrockPacket packet : pending) {
+                sender.accept(packet);
+            }
+            BATCHES.increment();
+        }
+        pending.clear();
+        clearIndexes();
+        lastKind = null;
+    }
+
+    private void clearIndexes() {
+        movements.clear();
+        entityData.clear();
+        motions.clear();
+    }
+
+    /**
+     * Flushes the queued packets if this is called from the event loop. A packet sent immediately from another thread
+     * cannot be ordered with the queued packets anyway.
+     */
+    public void flushIfInEventLoop() {
+        if (eventLoop.inEventLoop()) {
+            flush();
+        }
+    }
+
+    /**
+     * @return a packet with the effect of both packets, or null if they cannot be merged
+     */
+    private static @Nullable BedrockPacket merge(BedrockPacket previous, BedrockPacket packet) {
+        if (previous instanceof MoveEntityAbsolutePacket previousMove && packet instanceof MoveEntityAbsolutePacket move) {
+            MoveEntityAbsolutePacket merged = new MoveEntityAbsolutePacket();
+            merged.setRuntimeEntityId(move.getRuntimeEntityId());
+            merged.setPosition(move.getPosition());
+            merged.setRotation(move.getRotation());
+            merged.setOnGround(move.isOnGround());
+            merged.setTeleported(previousMove.isTeleported() || move.isTeleported());
+            merged.setForceMove(previousMove.isForceMove() || move.isForceMove());
+            BYTES_SAVED.add(ESTIMATED_MOVE_ABSOLUTE_SIZE);
+            return merged;
+        }
+
+        if (previous instanceof MoveEntityDeltaPacket previousMove && packet instanceof MoveEntityDeltaPacket move) {
+            // Despite the name, Bedrock sends absolute values for each changed component
+            MoveEntityDeltaPacket merged = new MoveEntityDeltaPacket();
+            merged.setRuntimeEntityId(move.getRuntimeEntityId());
+            Set<MoveEntityDeltaPacket.Flag> previousFlags = previousMove.getFlags();
+            Set<MoveEntityDeltaPacket.Flag> flags = move.getFlags();
+            Set<MoveEntityDeltaPacket.Flag> mergedFlags = EnumSet.noneOf(MoveEntityDeltaPacket.Flag.class);
+            mergedFlags.addAll(previousFlags);
+            mergedFlags.addAll(flags);
+            if (!flags.contains(MoveEntityDeltaPacket.Flag.ON_GROUND)) {
+                mergedFlags.remove(MoveEntityDeltaPacket.Flag.ON_GROUND);
+            }
+            merged.getFlags().addAll(mergedFlags);
+            merged.setX(flags.contains(MoveEntityDeltaPacket.Flag.HAS_X) ? move.getX() : previousMove.getX());
+            merged.setY(flags.contains(MoveEntityDeltaPacket.Flag.HAS_Y) ? move.getY() : previousMove.getY());
+            merged.setZ(flags.contains(MoveEntityDeltaPacket.Flag.HAS_Z) ? move.getZ() : previousMove.getZ());
+            merged.setPitch(flags.contains(MoveEntityDeltaPacket.Flag.HAS_PITCH) ? move.getPitch() : previousMove.getPitch());
+            merged.setYaw(flags.contains(MoveEntityDeltaPacket.Flag.HAS_YAW) ? move.getYaw() : previousMove.getYaw());
+            merged.setHeadYaw(flags.contains(MoveEntityDeltaPacket.Flag.HAS_HEAD_YAW) ? move.getHeadYaw() : previousMove.getHeadYaw());
+            BYTES_SAVED.add(ESTIMATED_MOVE_DELTA_SIZE);
+            return merged;
+        }
+
+        if (previous instanceof SetEntityDataPacket previousData && packet instanceof SetEntityDataPacket data) {
+            SetEntityDataPacket merged = new SetEntityDataPacket();
+            merged.setRuntimeEntityId(data.getRuntimeEntityId());
+            merged.getMetadata().putAll(previousData.getMetadata());
+            int overwritten = 0;
+            for (var key : data.getMetadata().keySet()) {
+                if (previousData.getMetadata().containsKey(key)) {
+                    overwritten++;
+                }
+            }
+            merged.getMetadata().putAll(data.getMetadata());
+            merged.setProperties(data.getProperties());
+            merged.setTick(data.getTick());
+            BYTES_SAVED.add(ESTIMATED_DATA_HEADER_SIZE + (long) overwritten * ESTIMATED_DATA_ENTRY_SIZE);
+            return merged;
+        }
+
+        if (previous instanceof SetEntityMotionPacket && packet instanceof SetEntityMotionPacket) {
+            // Only the latest motion matters
+            BYTES_SAVED.add(ESTIMATED_MOTION_SIZE);
+            return packet;
+        }
+
+        return null;
+    }
+
+    private static long runtimeEntityId(BedrockPacket packet) {
+        if (packet instanceof MoveEntityAbsolutePacket move) {
+            return move.getRuntimeEntityId();
+        }
+        return ((MoveEntityDeltaPacket) packet).getRuntimeEntityId();
+    }
+
+    private static Long2IntMap createIndex() {
+        Long2IntMap index = new Long2IntOpenHashMap();
+        index.defaultReturnValue(-1);
+        return index;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static long coalescedPackets() {
+        return COALESCED_PACKETS.sum();
+    }
+
+    /**
+     * @return an estimate of the bytes that did not have to be sent, before compression
+     */
+    public static long bytesSaved() {
+        return BYTES_SAVED.sum();
+    }
+
+    public static double batchesPerSecond() {
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000D;
+        return seconds <= 0 ? 0 : BATCHES.sum() / seconds;
+    }
+}
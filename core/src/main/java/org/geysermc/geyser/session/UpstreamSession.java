@@ -29,6 +29,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.protocol.bedrock.BedrockServerSession;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
@@ -44,15 +45,28 @@ public class UpstreamSession {
     @Getter @Setter
     private boolean initialized = false;
     private Queue<BedrockPacket> postStartGamePackets = new ArrayDeque<>();
+    /**
+     * If not null, packets are merged and sent at the end of the current event loop task once the player has spawned.
+     */
+    @Setter
+    private @Nullable UpstreamPacketCoalescer packetCoalescer;
 
     public void sendPacket(@NonNull BedrockPacket packet) {
         if (!isClosed()) {
-            session.sendPacket(packet);
+            if (packetCoalescer != null && initialized) {
+                packetCoalescer.queue(packet);
+            } else {
+                session.sendPacket(packet);
+            }
         }
     }
 
     public void sendPacketImmediately(@NonNull BedrockPacket packet) {
         if (!isClosed()) {
+            if (packetCoalescer != null) {
+                // Don't let this packet overtake the queued ones
+                packetCoalescer.flushIfInEventLoop();
+            }
             session.sendPacketImmediately(packet);
         }
     }
@@ -75,7 +89,7 @@ public class UpstreamSession {
 
         BedrockPacket packet;
         while ((packet = postStartGamePackets.poll()) != null) {
-            session.sendPacket(packet);
+            sendPacket(packet);
         }
         postStartGamePackets = null;
     }
@@ -30,15 +30,35 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import lombok.Getter;
 import lombok.Setter;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.erosion.util.BlockPositionIterator;
+import org.geysermc.geyser.erosion.AbstractGeyserboundPacketHandler;
+import org.geysermc.geyser.erosion.ErosionBlockCache;
+import org.geysermc.geyser.erosion.GeyserboundPacketHandlerImpl;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.block.BlockStateValues;
+import org.geysermc.geyser.level.chunk.CompactChunkSection;
 import org.geysermc.geyser.level.chunk.GeyserChunk;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.MathUtils;
 
+import java.util.Arrays;
+
 public class ChunkCache {
+    private final GeyserSession session;
     private final boolean cache;
+    /**
+     * If true, columns are stored in {@link #compactChunks} instead of {@link #chunks}.
+     */
+    private final boolean compact;
     private final Long2ObjectMap<GeyserChunk> chunks;
+    private final Long2ObjectMap<CompactChunkSection[]> compactChunks;
+    /**
+     * An estimate of the memory used by {@link #compactChunks} in bytes. Only written from the session's event loop,
+     * but read from other threads for dumps.
+     */
+    @Getter
+    private volatile long compactBytes = 0;
 
     @Setter
     private int minY;
@@ -53,16 +73,37 @@ public class ChunkCache {
     private BedrockDimension bedrockDimension = BedrockDimension.OVERWORLD;
 
     public ChunkCache(GeyserSession session) {
+        this.session = session;
         this.cache = !session.getGeyser().getWorldManager().hasOwnChunkCache(); // To prevent Spigot from initializing
-        chunks = cache ? new Long2ObjectOpenHashMap<>() : null;
+        this.compact = cache && session.getGeyser().getConfig().isCompactChunkCache();
+        chunks = cache && !compact ? new Long2ObjectOpenHashMap<>() : null;
+        compactChunks = compact ? new Long2ObjectOpenHashMap<>() : null;
     }
 
     public void addToCache(int x, int z, DataPalette[] chunks) {
+        ErosionBlockCache erosionBlocks = erosionBlockCache();
+        if (erosionBlocks != null) {
+            erosionBlocks.invalidateChunk(x, z);
+        }
         if (!cache) {
             return;
         }
 
         long chunkPosition = MathUtils.chunkPositionToLong(x, z);
+        if (compact) {
+            CompactChunkSection[] sections = new CompactChunkSection[chunks.length];
+            for (int i = 0; i < chunks.length; i++) {
+                if (chunks[i] != null) {
+                    sections[i] = CompactChunkSection.from(chunks[i]);
+                }
+            }
+            compactBytes += sizeInBytes(sections);
+            CompactChunkSection[] previous = compactChunks.put(chunkPosition, sections);
+            if (previous != null) {
+                compactBytes -= sizeInBytes(previous);
+            }
+            return;
+        }
         GeyserChunk geyserChunk = GeyserChunk.from(chunks);
         this.chunks.put(chunkPosition, geyserChunk);
     }
@@ -76,10 +117,19 @@ public class ChunkCache {
     }
 
     public void updateBlock(int x, int y, int z, int block) {
+        ErosionBlockCache erosionBlocks = erosionBlockCache();
+        if (erosionBlocks != null) {
+            erosionBlocks.put(x, y, z, block);
+        }
         if (!cache) {
             return;
         }
 
+        if (compact) {
+            updateCompactBlock(x, y, z, block);
+            return;
+        }
+
         GeyserChunk chunk = this.getChunk(x >> 4, z >> 4);
         if (chunk == null) {
             return;
@@ -107,12 +157,85 @@ public class ChunkCache {
         palette.set(x & 0xF, y & 0xF, z & 0xF, block);
     }
 
+    private void updateCompactBlock(int x, int y, int z, int block) {
+        CompactChunkSection[] column = compactChunks.get(MathUtils.chunkPositionToLong(x >> 4, z >> 4));
+        if (column == null) {
+            return;
+        }
+
+        if (y < minY || ((y - minY) >> 4) > column.length - 1) {
+            // Y likely goes above or below the height limit of this world
+            return;
+        }
+
+        int sectionIndex = (y - minY) >> 4;
+        CompactChunkSection section = column[sectionIndex];
+        if (section == null) {
+            if (block == BlockStateValues.JAVA_AIR_ID) {
+                // Nothing to update
+                return;
+            }
+            section = CompactChunkSection.singleton(BlockStateValues.JAVA_AIR_ID);
+        }
+
+        int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+        if (section.isShared()) {
+            if (section.get(index) == block) {
+                return;
+            }
+            section = section.mutableCopy();
+            column[sectionIndex] = section;
+        }
+
+        long previousSize = section.sizeInBytes();
+        section.set(index, block);
+        compactBytes += section.sizeInBytes() - previousSize;
+    }
+
     public int getBlockAt(int x, int y, int z) {
         if (!cache) {
             return BlockStateValues.JAVA_AIR_ID;
         }
 
-        GeyserChunk column = this.getChunk(x >> 4, z >> 4);
+        if (compact) {
+            return getCompactBlockAt(compactChunks.get(MathUtils.chunkPositionToLong(x >> 4, z >> 4)), x, y, z);
+        }
+
+        return getBlockAt(this.getChunk(x >> 4, z >> 4), x, y, z);
+    }
+
+    /**
+     * Looks up every block of the iterator, only looking up the chunk column again when the iterator moves into another one.
+     *
+     * @return the block states in iteration order
+     */
+    public int[] getBlocksAt(BlockPositionIterator iter) {
+        int[] blocks = new int[iter.getMaxIterations()];
+        if (!cache) {
+            Arrays.fill(blocks, BlockStateValues.JAVA_AIR_ID);
+            return blocks;
+        }
+
+        long lastPosition = 0;
+        Object column = null;
+        boolean first = true;
+        for (iter.reset(); iter.hasNext(); iter.next()) {
+            int x = iter.getX();
+            int z = iter.getZ();
+            long chunkPosition = MathUtils.chunkPositionToLong(x >> 4, z >> 4);
+            if (first || chunkPosition != lastPosition) {
+                column = compact ? compactChunks.get(chunkPosition) : chunks.get(chunkPosition);
+                lastPosition = chunkPosition;
+                first = false;
+            }
+
+            blocks[iter.getIteration()] = compact ? getCompactBlockAt((CompactChunkSection[]) column, x, iter.getY(), z)
+                    : getBlockAt((GeyserChunk) column, x, iter.getY(), z);
+        }
+        return blocks;
+    }
+
+    private int getBlockAt(@Nullable GeyserChunk column, int x, int y, int z) {
         if (column == null) {
             return BlockStateValues.JAVA_AIR_ID;
         }
@@ -130,12 +253,41 @@ public class ChunkCache {
         return BlockStateValues.JAVA_AIR_ID;
     }
 
+    private int getCompactBlockAt(CompactChunkSection @Nullable [] column, int x, int y, int z) {
+        if (column == null) {
+            return BlockStateValues.JAVA_AIR_ID;
+        }
+
+        if (y < minY || ((y - minY) >> 4) > column.length - 1) {
+            // Y likely goes above or below the height limit of this world
+            return BlockStateValues.JAVA_AIR_ID;
+        }
+
+        CompactChunkSection section = column[(y - minY) >> 4];
+        if (section != null) {
+            return section.get(((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF));
+        }
+
+        return BlockStateValues.JAVA_AIR_ID;
+    }
+
     public void removeChunk(int chunkX, int chunkZ) {
+        ErosionBlockCache erosionBlocks = erosionBlockCache();
+        if (erosionBlocks != null) {
+            erosionBlocks.invalidateChunk(chunkX, chunkZ);
+        }
         if (!cache) {
             return;
         }
 
         long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
+        if (compact) {
+            CompactChunkSection[] removed = compactChunks.remove(chunkPosition);
+            if (removed != null) {
+                compactBytes -= sizeInBytes(removed);
+            }
+            return;
+        }
         chunks.remove(chunkPosition);
     }
 
@@ -145,13 +297,55 @@ public class ChunkCache {
      * but it is the client that must clear sections in the event of proxy switches.
      */
     public void clear() {
+        ErosionBlockCache erosionBlocks = erosionBlockCache();
+        if (erosionBlocks != null) {
+            erosionBlocks.clear();
+        }
         if (!cache) {
             return;
         }
 
+        if (compact) {
+            compactChunks.clear();
+            compactBytes = 0;
+            return;
+        }
         chunks.clear();
     }
 
+    /**
+     * @return the blocks looked up through Erosion, or null if Erosion is not active for this session
+     */
+    private @Nullable ErosionBlockCache erosionBlockCache() {
+        AbstractGeyserboundPacketHandler erosionHandler = session.getErosionHandler();
+        // Null during session initialization
+        if (erosionHandler == null) {
+            return null;
+        }
+        GeyserboundPacketHandlerImpl activeHandler = erosionHandler.getAsActive();
+        return activeHandler == null ? null : activeHandler.getBlockCache();
+    }
+
+    /**
+     * @return the amount of chunk columns held by this cache
+     */
+    public int size() {
+        if (!cache) {
+            return 0;
+        }
+        return compact ? compactChunks.size() : chunks.size();
+    }
+
+    private static long sizeInBytes(CompactChunkSection[] column) {
+        long size = 16 + column.length * 4L;
+        for (CompactChunkSection section : column) {
+            if (section != null) {
+                size += section.sizeInBytes();
+            }
+        }
+        return size;
+    }
+
     public int getChunkMinY() {
         return minY >> 4;
     }
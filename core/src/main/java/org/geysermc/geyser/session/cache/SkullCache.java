@@ -28,6 +28,8 @@ package org.geysermc.geyser.session.cache;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.math.vector.Vector3f;
 import org.cloudburstmc.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import lombok.Data;
 import lombok.Getter;
@@ -41,6 +43,7 @@ import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.type.CustomSkull;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.skin.SkinManager;
+import org.geysermc.geyser.util.MathUtils;
 
 import java.io.IOException;
 import java.util.*;
@@ -50,6 +53,11 @@ public class SkullCache {
     private final boolean cullingEnabled;
     
     private final int skullRenderDistanceSquared;
+    /**
+     * How many chunks in each direction around the player are scanned for skulls. As the render distance is at most
+     * 64 blocks, this is at most 5, so at most 11x11 chunk columns are scanned.
+     */
+    private final int skullRenderDistanceChunks;
     
     /**
      * The time in milliseconds before unused skull entities are despawned
@@ -58,8 +66,20 @@ public class SkullCache {
 
     @Getter
     private final Map<Vector3i, Skull> skulls = new Object2ObjectOpenHashMap<>();
+    /**
+     * All skulls by chunk, so only skulls near the player have to be checked when the player moves.
+     */
+    private final Long2ObjectMap<List<Skull>> skullsByChunk = new Long2ObjectOpenHashMap<>();
 
+    /**
+     * The skulls within render distance. The first {@link #maxVisibleSkulls} are sorted by distance,
+     * and every skull after them is at least as far away as those.
+     */
     private final List<Skull> inRangeSkulls = new ArrayList<>();
+    /**
+     * Used to find the closest skulls. The farthest of them is at the head.
+     */
+    private final PriorityQueue<Skull> closestSkulls = new PriorityQueue<>(Comparator.comparingInt(Skull::getDistanceSquared).reversed());
 
     private final Deque<SkullPlayerEntity> unusedSkullEntities = new ArrayDeque<>();
     private int totalSkullEntities = 0;
@@ -78,10 +98,16 @@ public class SkullCache {
         // Normal skulls are not rendered beyond 64 blocks
         int distance = Math.min(session.getGeyser().getConfig().getCustomSkullRenderDistance(), 64);
         this.skullRenderDistanceSquared = distance * distance;
+        this.skullRenderDistanceChunks = (distance >> 4) + 1;
     }
 
     public Skull putSkull(Vector3i position, UUID uuid, String texturesProperty, int blockState) {
-        Skull skull = skulls.computeIfAbsent(position, Skull::new);
+        Skull skull = skulls.get(position);
+        if (skull == null) {
+            skull = new Skull(position);
+            skulls.put(position, skull);
+            skullsByChunk.computeIfAbsent(chunkKey(position), key -> new ArrayList<>()).add(skull);
+        }
         skull.uuid = uuid;
         if (!texturesProperty.equals(skull.texturesProperty)) {
             skull.texturesProperty = texturesProperty;
@@ -121,12 +147,19 @@ public class SkullCache {
             }
             skull.distanceSquared = position.distanceSquared(lastPlayerPosition.getX(), lastPlayerPosition.getY(), lastPlayerPosition.getZ());
             if (skull.distanceSquared < skullRenderDistanceSquared) {
-                // Keep list in order
-                int i = Collections.binarySearch(inRangeSkulls, skull, Comparator.comparingInt(Skull::getDistanceSquared));
+                // Keep the visible skulls in order
+                int sorted = Math.min(inRangeSkulls.size(), maxVisibleSkulls);
+                int i = Collections.binarySearch(inRangeSkulls.subList(0, sorted), skull, Comparator.comparingInt(Skull::getDistanceSquared));
                 if (i < 0) { // skull.distanceSquared is a new distance value
                     i = -i - 1;
                 }
-                inRangeSkulls.add(i, skull);
+                if (i < sorted) {
+                    inRangeSkulls.add(i, skull);
+                } else {
+                    // Too far away to be visible
+                    i = inRangeSkulls.size();
+                    inRangeSkulls.add(skull);
+                }
 
                 if (i < maxVisibleSkulls) {
                     // Reassign entity from the farthest skull to this one
@@ -143,6 +176,14 @@ public class SkullCache {
     public void removeSkull(Vector3i position) {
         Skull skull = skulls.remove(position);
         if (skull != null) {
+            long chunkKey = chunkKey(position);
+            List<Skull> chunkSkulls = skullsByChunk.get(chunkKey);
+            if (chunkSkulls != null) {
+                chunkSkulls.remove(skull);
+                if (chunkSkulls.isEmpty()) {
+                    skullsByChunk.remove(chunkKey);
+                }
+            }
             reassignSkullEntity(skull);
         }
     }
@@ -163,20 +204,51 @@ public class SkullCache {
             }
             lastPlayerPosition = session.getPlayerEntity().getPosition();
 
-            inRangeSkulls.clear();
-            for (Skull skull : skulls.values()) {
-                if (skull.blockDefinition != null) {
-                    continue;
+            // Only skulls that were in range can have an entity
+            for (Skull skull : inRangeSkulls) {
+                if (skull.entity != null && skull.position.distanceSquared(lastPlayerPosition.getX(), lastPlayerPosition.getY(),
+                        lastPlayerPosition.getZ()) > skullRenderDistanceSquared) {
+                    freeSkullEntity(skull);
                 }
+            }
+            inRangeSkulls.clear();
 
-                skull.distanceSquared = skull.position.distanceSquared(lastPlayerPosition.getX(), lastPlayerPosition.getY(), lastPlayerPosition.getZ());
-                if (skull.distanceSquared > skullRenderDistanceSquared) {
-                    freeSkullEntity(skull);
-                } else {
-                    inRangeSkulls.add(skull);
+            int playerChunkX = lastPlayerPosition.getFloorX() >> 4;
+            int playerChunkZ = lastPlayerPosition.getFloorZ() >> 4;
+            for (int chunkX = playerChunkX - skullRenderDistanceChunks; chunkX <= playerChunkX + skullRenderDistanceChunks; chunkX++) {
+                for (int chunkZ = playerChunkZ - skullRenderDistanceChunks; chunkZ <= playerChunkZ + skullRenderDistanceChunks; chunkZ++) {
+                    List<Skull> chunkSkulls = skullsByChunk.get(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+                    if (chunkSkulls == null) {
+                        continue;
+                    }
+                    for (Skull skull : chunkSkulls) {
+                        if (skull.blockDefinition != null) {
+                            continue;
+                        }
+
+                        skull.distanceSquared = skull.position.distanceSquared(lastPlayerPosition.getX(), lastPlayerPosition.getY(), lastPlayerPosition.getZ());
+                        if (skull.distanceSquared > skullRenderDistanceSquared) {
+                            continue;
+                        }
+                        // Keep the closest skulls in the heap, and everything farther away in the list
+                        if (closestSkulls.size() < maxVisibleSkulls) {
+                            closestSkulls.add(skull);
+                        } else if (maxVisibleSkulls > 0 && skull.distanceSquared < closestSkulls.peek().distanceSquared) {
+                            inRangeSkulls.add(closestSkulls.poll());
+                            closestSkulls.add(skull);
+                        } else {
+                            inRangeSkulls.add(skull);
+                        }
+                    }
                 }
             }
-            inRangeSkulls.sort(Comparator.comparingInt(Skull::getDistanceSquared));
+
+            // The heap is emptied farthest first
+            Skull[] closest = new Skull[closestSkulls.size()];
+            for (int i = closest.length - 1; i >= 0; i--) {
+                closest[i] = closestSkulls.poll();
+            }
+            inRangeSkulls.addAll(0, Arrays.asList(closest));
 
             for (int i = inRangeSkulls.size() - 1; i >= 0; i--) {
                 if (i < maxVisibleSkulls) {
@@ -233,15 +305,43 @@ public class SkullCache {
 
         if (cullingEnabled) {
             inRangeSkulls.remove(skull);
-            if (hadEntity && inRangeSkulls.size() >= maxVisibleSkulls) {
+            if (hadEntity && inRangeSkulls.size() >= maxVisibleSkulls && maxVisibleSkulls > 0) {
                 // Reassign entity to the closest skull without an entity
+                moveClosestTo(maxVisibleSkulls - 1);
                 assignSkullEntity(inRangeSkulls.get(maxVisibleSkulls - 1));
             }
         }
     }
 
+    /**
+     * Moves the closest of the unsorted skulls to the given index, which must be the last sorted index.
+     */
+    private void moveClosestTo(int index) {
+        int closest = index;
+        for (int i = index + 1; i < inRangeSkulls.size(); i++) {
+            if (inRangeSkulls.get(i).distanceSquared < inRangeSkulls.get(closest).distanceSquared) {
+                closest = i;
+            }
+        }
+        if (closest != index) {
+            Collections.swap(inRangeSkulls, index, closest);
+        }
+    }
+
+    /**
+     * @return whether any skulls are known in this chunk column
+     */
+    public boolean hasSkulls(int chunkX, int chunkZ) {
+        return skullsByChunk.containsKey(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+    }
+
+    private static long chunkKey(Vector3i position) {
+        return MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4);
+    }
+
     public void clear() {
         skulls.clear();
+        skullsByChunk.clear();
         inRangeSkulls.clear();
         unusedSkullEntities.clear();
         totalSkullEntities = 0;
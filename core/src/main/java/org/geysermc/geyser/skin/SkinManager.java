@@ -29,6 +29,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
 import com.github.steveice10.opennbt.tag.builtin.ListTag;
 import com.github.steveice10.opennbt.tag.builtin.StringTag;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.protocol.bedrock.data.skin.ImageData;
 import org.cloudburstmc.protocol.bedrock.data.skin.SerializedSkin;
@@ -46,9 +48,21 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 public class SkinManager {
+    /**
+     * Limits the memory used when many players with different skins join at once; each skin holds its full image data.
+     */
+    private static final int MAX_SERIALIZED_SKINS = 1_000;
+
+    private static final Cache<SerializedSkinKey, SerializedSkin> SERIALIZED_SKINS = CacheBuilder.newBuilder()
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .maximumSize(MAX_SERIALIZED_SKINS)
+            .build();
+    private static final LongAdder SHARED_SKINS = new LongAdder();
 
     /**
      * Builds a Bedrock player list entry from our existing, cached Bedrock skin information
@@ -158,13 +172,40 @@ public class SkinManager {
             packet.setTrustedSkin(true);
             session.sendUpstreamPacket(packet);
         }
+
+        SkinStreamer skinStreamer = session.getSkinStreamer();
+        if (skinStreamer != null) {
+            skinStreamer.markSent(entity.getUuid(), skinData);
+        }
     }
 
     private static SerializedSkin getSkin(String skinId, SkinProvider.Skin skin, SkinProvider.Cape cape, SkinProvider.SkinGeometry geometry) {
-        return SerializedSkin.of(skinId, "", geometry.geometryName(),
-                ImageData.of(skin.getSkinData()), Collections.emptyList(),
-                ImageData.of(cape.capeData()), geometry.geometryData(),
-                "", true, false, false, cape.capeId(), skinId);
+        // Skins and capes are cached by SkinProvider, so the same skin of a player is shared between all sessions
+        SerializedSkinKey key = new SerializedSkinKey(skinId, skin, cape, geometry);
+        SerializedSkin serializedSkin = SERIALIZED_SKINS.getIfPresent(key);
+        if (serializedSkin == null) {
+            serializedSkin = SerializedSkin.of(skinId, "", geometry.geometryName(),
+                    ImageData.of(skin.getSkinData()), Collections.emptyList(),
+                    ImageData.of(cape.capeData()), geometry.geometryData(),
+                    "", true, false, false, cape.capeId(), skinId);
+            SERIALIZED_SKINS.put(key, serializedSkin);
+        } else {
+            SHARED_SKINS.increment();
+        }
+        return serializedSkin;
+    }
+
+    /**
+     * @return how many times an already built skin could be reused
+     */
+    public static long sharedSkins() {
+        return SHARED_SKINS.sum();
+    }
+
+    /**
+     * Skins, capes and their image data are compared by identity.
+     */
+    private record SerializedSkinKey(String skinId, SkinProvider.Skin skin, SkinProvider.Cape cape, SkinProvider.SkinGeometry geometry) {
     }
 
     public static void requestAndHandleSkinAndCape(PlayerEntity entity, GeyserSession session,
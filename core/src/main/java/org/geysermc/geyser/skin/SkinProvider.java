@@ -28,6 +28,7 @@ package org.geysermc.geyser.skin;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import it.unimi.dsi.fastutil.bytes.ByteArrays;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -46,11 +47,8 @@ import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
@@ -59,6 +57,11 @@ import java.util.function.Predicate;
 public class SkinProvider {
     private static final boolean ALLOW_THIRD_PARTY_CAPES = GeyserImpl.getInstance().getConfig().isAllowThirdPartyCapes();
     private static ExecutorService EXECUTOR_SERVICE;
+    /**
+     * Decodes and converts textures. Downloads do not block any threads, so this only needs to scale with the CPU.
+     */
+    private static ExecutorService CONVERSION_EXECUTOR;
+    private static SkinTextureStore TEXTURE_STORE;
 
     static final Skin EMPTY_SKIN;
     static final Cape EMPTY_CAPE = new Cape("", "no-cape", ByteArrays.EMPTY_ARRAY, -1, true);
@@ -99,7 +102,8 @@ public class SkinProvider {
         // Generate the empty texture to use as an emergency fallback
         final int pink = -524040;
         final int black = -16777216;
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 4 + 64 * 4);
+        byte[] emptySkinData = new byte[64 * 64 * 4];
+        int index = 0;
         for (int y = 0; y < 64; y++) {
             for (int x = 0; x < 64; x++) {
                 int rgba;
@@ -108,13 +112,13 @@ public class SkinProvider {
                 } else {
                     rgba = x >= 32 ? black : pink;
                 }
-                outputStream.write((rgba >> 16) & 0xFF); // Red
-                outputStream.write((rgba >> 8) & 0xFF); // Green
-                outputStream.write(rgba & 0xFF); // Blue
-                outputStream.write((rgba >> 24) & 0xFF); // Alpha
+                emptySkinData[index++] = (byte) ((rgba >> 16) & 0xFF); // Red
+                emptySkinData[index++] = (byte) ((rgba >> 8) & 0xFF); // Green
+                emptySkinData[index++] = (byte) (rgba & 0xFF); // Blue
+                emptySkinData[index++] = (byte) ((rgba >> 24) & 0xFF); // Alpha
             }
         }
-        EMPTY_SKIN = new Skin(-1, "geysermc:empty", outputStream.toByteArray());
+        EMPTY_SKIN = new Skin(-1, "geysermc:empty", emptySkinData);
 
         /* Load in the normal ears geometry */
         EARS_GEOMETRY = new String(FileUtils.readAllBytes("bedrock/skin/geometry.humanoid.ears.json"), StandardCharsets.UTF_8);
@@ -140,34 +144,61 @@ public class SkinProvider {
         return EXECUTOR_SERVICE;
     }
 
+    static synchronized ExecutorService getConversionExecutor() {
+        if (CONVERSION_EXECUTOR == null) {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+            CONVERSION_EXECUTOR = Executors.newFixedThreadPool(threads, new DefaultThreadFactory("Geyser Skin Conversion Thread", true));
+        }
+        return CONVERSION_EXECUTOR;
+    }
+
+    /**
+     * @return the store for converted textures, or null if images should not be cached to disk
+     */
+    private static synchronized @Nullable SkinTextureStore getTextureStore() {
+        if (TEXTURE_STORE == null && GeyserImpl.getInstance().getConfig().getCacheImages() > 0) {
+            TEXTURE_STORE = new SkinTextureStore(GeyserImpl.getInstance().getBootstrap().getConfigFolder().resolve("cache").resolve("textures"));
+        }
+        return TEXTURE_STORE;
+    }
+
     public static void shutdown() {
         if (EXECUTOR_SERVICE != null) {
             EXECUTOR_SERVICE.shutdown();
             EXECUTOR_SERVICE = null;
         }
+        synchronized (SkinProvider.class) {
+            if (CONVERSION_EXECUTOR != null) {
+                CONVERSION_EXECUTOR.shutdown();
+                CONVERSION_EXECUTOR = null;
+            }
+        }
     }
 
     public static void registerCacheImageTask(GeyserImpl geyser) {
         // Schedule Daily Image Expiry if we are caching them
         if (geyser.getConfig().getCacheImages() > 0) {
             geyser.getScheduledThread().scheduleAtFixedRate(() -> {
-                File cacheFolder = GeyserImpl.getInstance().getBootstrap().getConfigFolder().resolve("cache").resolve("images").toFile();
-                if (!cacheFolder.exists()) {
-                    return;
-                }
+                // Images were stored as PNGs in the images folder before textures were stored converted
+                for (String folder : new String[] {"images", "textures"}) {
+                    File cacheFolder = GeyserImpl.getInstance().getBootstrap().getConfigFolder().resolve("cache").resolve(folder).toFile();
+                    if (!cacheFolder.exists()) {
+                        continue;
+                    }
 
-                int count = 0;
-                final long expireTime = ((long) GeyserImpl.getInstance().getConfig().getCacheImages()) * ((long)1000 * 60 * 60 * 24);
-                for (File imageFile : Objects.requireNonNull(cacheFolder.listFiles())) {
-                    if (imageFile.lastModified() < System.currentTimeMillis() - expireTime) {
-                        //noinspection ResultOfMethodCallIgnored
-                        imageFile.delete();
-                        count++;
+                    int count = 0;
+                    final long expireTime = ((long) GeyserImpl.getInstance().getConfig().getCacheImages()) * ((long)1000 * 60 * 60 * 24);
+                    for (File imageFile : Objects.requireNonNull(cacheFolder.listFiles())) {
+                        if (imageFile.lastModified() < System.currentTimeMillis() - expireTime) {
+                            //noinspection ResultOfMethodCallIgnored
+                            imageFile.delete();
+                            count++;
+                        }
                     }
-                }
 
-                if (count > 0) {
-                    GeyserImpl.getInstance().getLogger().debug(String.format("Removed %d cached image files as they have expired", count));
+                    if (count > 0) {
+                        GeyserImpl.getInstance().getLogger().debug(String.format("Removed %d cached image files as they have expired", count));
+                    }
                 }
             }, 10, 1440, TimeUnit.MINUTES);
         }
@@ -246,80 +277,74 @@ public class SkinProvider {
         }
 
         return requestSkinAndCape(entity.getUuid(), data.skinUrl(), data.capeUrl())
-                .thenApplyAsync(skinAndCape -> {
-                    try {
-                        Skin skin = skinAndCape.skin();
-                        Cape cape = skinAndCape.cape();
-                        SkinGeometry geometry = data.isAlex() ? SkinGeometry.SLIM : SkinGeometry.WIDE;
-
-                        // Whether we should see if this player has a Bedrock skin we should check for on failure of
-                        // any skin property
-                        boolean checkForBedrock = entity.getUuid().version() != 4;
-
-                        if (cape.failed() && checkForBedrock) {
-                            cape = getCachedBedrockCape(entity.getUuid());
-                        }
+                .thenCompose(skinAndCape -> {
+                    Skin skin = skinAndCape.skin();
+                    Cape cape = skinAndCape.cape();
+                    SkinGeometry geometry = data.isAlex() ? SkinGeometry.SLIM : SkinGeometry.WIDE;
 
-                        if (cape.failed() && ALLOW_THIRD_PARTY_CAPES) {
-                            cape = getOrDefault(requestUnofficialCape(
-                                    cape, entity.getUuid(),
-                                    entity.getUsername(), false
-                            ), EMPTY_CAPE, CapeProvider.VALUES.length * 3);
-                        }
+                    // Whether we should see if this player has a Bedrock skin we should check for on failure of
+                    // any skin property
+                    boolean checkForBedrock = entity.getUuid().version() != 4;
 
-                        boolean isDeadmau5 = "deadmau5".equals(entity.getUsername());
-                        // Not a bedrock player check for ears
-                        if (geometry.failed() && (ALLOW_THIRD_PARTY_EARS || isDeadmau5)) {
-                            boolean isEars;
-
-                            // Its deadmau5, gotta support his skin :)
-                            if (isDeadmau5) {
-                                isEars = true;
-                            } else {
-                                // Get the ears texture for the player
-                                skin = getOrDefault(requestUnofficialEars(
-                                        skin, entity.getUuid(), entity.getUsername(), false
-                                ), skin, 3);
-
-                                isEars = skin.isEars();
-                            }
+                    if (cape.failed() && checkForBedrock) {
+                        cape = getCachedBedrockCape(entity.getUuid());
+                    }
+
+                    CompletableFuture<Cape> capeFuture = CompletableFuture.completedFuture(cape);
+                    if (cape.failed() && ALLOW_THIRD_PARTY_CAPES) {
+                        capeFuture = withTimeout(requestUnofficialCape(
+                                cape, entity.getUuid(),
+                                entity.getUsername()
+                        ), EMPTY_CAPE, CapeProvider.VALUES.length * 3);
+                    }
+
+                    boolean isDeadmau5 = "deadmau5".equals(entity.getUsername());
+                    // Not a bedrock player check for ears
+                    boolean checkForEars = geometry.failed() && (ALLOW_THIRD_PARTY_EARS || isDeadmau5);
+                    CompletableFuture<Skin> skinFuture = CompletableFuture.completedFuture(skin);
+                    // Its deadmau5, gotta support his skin :)
+                    if (checkForEars && !isDeadmau5) {
+                        // Get the ears texture for the player
+                        skinFuture = withTimeout(requestUnofficialEars(
+                                skin, entity.getUuid(), entity.getUsername()
+                        ), skin, 3);
+                    }
 
+                    return capeFuture.thenCombine(skinFuture, (finalCape, finalSkin) -> {
+                        try {
+                            SkinGeometry finalGeometry = geometry;
                             // Does the skin have an ears texture
-                            if (isEars) {
+                            if (checkForEars && (isDeadmau5 || finalSkin.isEars())) {
                                 // Get the new geometry
-                                geometry = SkinGeometry.getEars(data.isAlex());
+                                finalGeometry = SkinGeometry.getEars(data.isAlex());
 
                                 // Store the skin and geometry for the ears
-                                storeEarSkin(skin);
+                                storeEarSkin(finalSkin);
                                 storeEarGeometry(entity.getUuid(), data.isAlex());
                             }
-                        }
 
-                        return new SkinData(skin, cape, geometry);
-                    } catch (Exception e) {
-                        GeyserImpl.getInstance().getLogger().error(GeyserLocale.getLocaleStringLog("geyser.skin.fail", entity.getUuid()), e);
-                    }
+                            return new SkinData(finalSkin, finalCape, finalGeometry);
+                        } catch (Exception e) {
+                            GeyserImpl.getInstance().getLogger().error(GeyserLocale.getLocaleStringLog("geyser.skin.fail", entity.getUuid()), e);
+                        }
 
-                    return new SkinData(skinAndCape.skin(), skinAndCape.cape(), null);
+                        return new SkinData(skinAndCape.skin(), skinAndCape.cape(), null);
+                    });
                 });
     }
 
     private static CompletableFuture<SkinAndCape> requestSkinAndCape(UUID playerId, String skinUrl, String capeUrl) {
-        return CompletableFuture.supplyAsync(() -> {
-            long time = System.currentTimeMillis();
-
-            CapeProvider provider = capeUrl != null ? CapeProvider.MINECRAFT : null;
-            SkinAndCape skinAndCape = new SkinAndCape(
-                    getOrDefault(requestSkin(playerId, skinUrl, false), EMPTY_SKIN, 5),
-                    getOrDefault(requestCape(capeUrl, provider, false), EMPTY_CAPE, 5)
-            );
+        long time = System.currentTimeMillis();
 
-            GeyserImpl.getInstance().getLogger().debug("Took " + (System.currentTimeMillis() - time) + "ms for " + playerId);
-            return skinAndCape;
-        }, getExecutorService());
+        CapeProvider provider = capeUrl != null ? CapeProvider.MINECRAFT : null;
+        return withTimeout(requestSkin(playerId, skinUrl), EMPTY_SKIN, 5)
+                .thenCombine(withTimeout(requestCape(capeUrl, provider), EMPTY_CAPE, 5), (skin, cape) -> {
+                    GeyserImpl.getInstance().getLogger().debug("Took " + (System.currentTimeMillis() - time) + "ms for " + playerId);
+                    return new SkinAndCape(skin, cape);
+                });
     }
 
-    static CompletableFuture<Skin> requestSkin(UUID playerId, String textureUrl, boolean newThread) {
+    static CompletableFuture<Skin> requestSkin(UUID playerId, String textureUrl) {
         if (textureUrl == null || textureUrl.isEmpty()) return CompletableFuture.completedFuture(EMPTY_SKIN);
         CompletableFuture<Skin> requestedSkin = requestedSkins.get(textureUrl);
         if (requestedSkin != null) {
@@ -332,24 +357,23 @@ public class SkinProvider {
             return CompletableFuture.completedFuture(cachedSkin);
         }
 
-        CompletableFuture<Skin> future;
-        if (newThread) {
-            future = CompletableFuture.supplyAsync(() -> supplySkin(playerId, textureUrl), getExecutorService())
-                    .whenCompleteAsync((skin, throwable) -> {
-                        skin.updated = true;
-                        CACHED_JAVA_SKINS.put(textureUrl, skin);
-                        requestedSkins.remove(textureUrl);
-                    });
-            requestedSkins.put(textureUrl, future);
-        } else {
-            Skin skin = supplySkin(playerId, textureUrl);
-            future = CompletableFuture.completedFuture(skin);
-            CACHED_JAVA_SKINS.put(textureUrl, skin);
+        CompletableFuture<Skin> future = new CompletableFuture<>();
+        requestedSkin = requestedSkins.putIfAbsent(textureUrl, future);
+        if (requestedSkin != null) {
+            // requested by another thread in the meantime
+            return requestedSkin;
         }
+
+        supplySkin(playerId, textureUrl).whenComplete((skin, throwable) -> {
+            skin.updated = true;
+            CACHED_JAVA_SKINS.put(textureUrl, skin);
+            requestedSkins.remove(textureUrl);
+            future.complete(skin);
+        });
         return future;
     }
 
-    private static CompletableFuture<Cape> requestCape(String capeUrl, CapeProvider provider, boolean newThread) {
+    private static CompletableFuture<Cape> requestCape(String capeUrl, CapeProvider provider) {
         if (capeUrl == null || capeUrl.isEmpty()) return CompletableFuture.completedFuture(EMPTY_CAPE);
         CompletableFuture<Cape> requestedCape = requestedCapes.get(capeUrl);
         if (requestedCape != null) {
@@ -361,54 +385,53 @@ public class SkinProvider {
             return CompletableFuture.completedFuture(cachedCape);
         }
 
-        CompletableFuture<Cape> future;
-        if (newThread) {
-            future = CompletableFuture.supplyAsync(() -> supplyCape(capeUrl, provider), getExecutorService())
-                    .whenCompleteAsync((cape, throwable) -> {
-                        CACHED_JAVA_CAPES.put(capeUrl, cape);
-                        requestedCapes.remove(capeUrl);
-                    });
-            requestedCapes.put(capeUrl, future);
-        } else {
-            Cape cape = supplyCape(capeUrl, provider); // blocking
-            future = CompletableFuture.completedFuture(cape);
-            CACHED_JAVA_CAPES.put(capeUrl, cape);
+        CompletableFuture<Cape> future = new CompletableFuture<>();
+        requestedCape = requestedCapes.putIfAbsent(capeUrl, future);
+        if (requestedCape != null) {
+            return requestedCape;
         }
+
+        supplyCape(capeUrl, provider).whenComplete((cape, throwable) -> {
+            CACHED_JAVA_CAPES.put(capeUrl, cape);
+            requestedCapes.remove(capeUrl);
+            future.complete(cape);
+        });
         return future;
     }
 
-    private static CompletableFuture<Cape> requestUnofficialCape(Cape officialCape, UUID playerId,
-                                                                String username, boolean newThread) {
+    private static CompletableFuture<Cape> requestUnofficialCape(Cape officialCape, UUID playerId, String username) {
         if (officialCape.failed() && ALLOW_THIRD_PARTY_CAPES) {
-            for (CapeProvider provider : CapeProvider.VALUES) {
-                if (provider.type != CapeUrlType.USERNAME && IS_NPC.test(playerId)) {
-                    continue;
-                }
+            return requestUnofficialCape(officialCape, playerId, username, 0);
+        }
+        return CompletableFuture.completedFuture(officialCape);
+    }
 
-                Cape cape1 = getOrDefault(
-                        requestCape(provider.getUrlFor(playerId, username), provider, newThread),
-                        EMPTY_CAPE, 4
-                );
-                if (!cape1.failed()) {
-                    return CompletableFuture.completedFuture(cape1);
-                }
+    /**
+     * Tries each cape provider in order, starting at the given index, until one of them has a cape.
+     */
+    private static CompletableFuture<Cape> requestUnofficialCape(Cape officialCape, UUID playerId, String username, int providerIndex) {
+        for (int i = providerIndex; i < CapeProvider.VALUES.length; i++) {
+            CapeProvider provider = CapeProvider.VALUES[i];
+            if (provider.type != CapeUrlType.USERNAME && IS_NPC.test(playerId)) {
+                continue;
             }
+
+            int nextIndex = i + 1;
+            return withTimeout(requestCape(provider.getUrlFor(playerId, username), provider), EMPTY_CAPE, 4)
+                    .thenCompose(cape1 -> {
+                        if (!cape1.failed()) {
+                            return CompletableFuture.completedFuture(cape1);
+                        }
+                        return requestUnofficialCape(officialCape, playerId, username, nextIndex);
+                    });
         }
         return CompletableFuture.completedFuture(officialCape);
     }
 
-    private static CompletableFuture<Skin> requestEars(String earsUrl, boolean newThread, Skin skin) {
+    private static CompletableFuture<Skin> requestEars(String earsUrl, Skin skin) {
         if (earsUrl == null || earsUrl.isEmpty()) return CompletableFuture.completedFuture(skin);
 
-        CompletableFuture<Skin> future;
-        if (newThread) {
-            future = CompletableFuture.supplyAsync(() -> supplyEars(skin, earsUrl), getExecutorService())
-                    .whenCompleteAsync((outSkin, throwable) -> { });
-        } else {
-            Skin ears = supplyEars(skin, earsUrl); // blocking
-            future = CompletableFuture.completedFuture(ears);
-        }
-        return future;
+        return supplyEars(skin, earsUrl);
     }
 
     /**
@@ -417,22 +440,27 @@ public class SkinProvider {
      * @param officialSkin The current players skin
      * @param playerId The players UUID
      * @param username The players username
-     * @param newThread Should we start in a new thread
      * @return The updated skin with ears
      */
-    private static CompletableFuture<Skin> requestUnofficialEars(Skin officialSkin, UUID playerId, String username, boolean newThread) {
-        for (EarsProvider provider : EarsProvider.VALUES) {
+    private static CompletableFuture<Skin> requestUnofficialEars(Skin officialSkin, UUID playerId, String username) {
+        return requestUnofficialEars(officialSkin, playerId, username, 0);
+    }
+
+    private static CompletableFuture<Skin> requestUnofficialEars(Skin officialSkin, UUID playerId, String username, int providerIndex) {
+        for (int i = providerIndex; i < EarsProvider.VALUES.length; i++) {
+            EarsProvider provider = EarsProvider.VALUES[i];
             if (provider.type != CapeUrlType.USERNAME && IS_NPC.test(playerId)) {
                 continue;
             }
 
-            Skin skin1 = getOrDefault(
-                    requestEars(provider.getUrlFor(playerId, username), newThread, officialSkin),
-                    officialSkin, 4
-            );
-            if (skin1.isEars()) {
-                return CompletableFuture.completedFuture(skin1);
-            }
+            int nextIndex = i + 1;
+            return withTimeout(requestEars(provider.getUrlFor(playerId, username), officialSkin), officialSkin, 4)
+                    .thenCompose(skin1 -> {
+                        if (skin1.isEars()) {
+                            return CompletableFuture.completedFuture(skin1);
+                        }
+                        return requestUnofficialEars(officialSkin, playerId, username, nextIndex);
+                    });
         }
 
         return CompletableFuture.completedFuture(officialSkin);
@@ -472,31 +500,28 @@ public class SkinProvider {
         cachedGeometry.put(playerID, SkinGeometry.getEars(isSlim));
     }
 
-    private static Skin supplySkin(UUID uuid, String textureUrl) {
-        try {
-            byte[] skin = requestImageData(textureUrl, null);
-            return new Skin(uuid, textureUrl, skin, System.currentTimeMillis(), false, false);
-        } catch (Exception ignored) {} // just ignore I guess
-
-        return new Skin(uuid, "empty", EMPTY_SKIN.getSkinData(), System.currentTimeMillis(), false, false);
+    private static CompletableFuture<Skin> supplySkin(UUID uuid, String textureUrl) {
+        return requestImageData(textureUrl, TextureType.SKIN)
+                .thenApply(image -> new Skin(uuid, textureUrl, image.data(), System.currentTimeMillis(), false, false))
+                // just ignore I guess
+                .exceptionally(throwable -> new Skin(uuid, "empty", EMPTY_SKIN.getSkinData(), System.currentTimeMillis(), false, false));
     }
 
-    private static Cape supplyCape(String capeUrl, CapeProvider provider) {
-        byte[] cape = EMPTY_CAPE.capeData();
-        try {
-            cape = requestImageData(capeUrl, provider);
-        } catch (Exception ignored) {
-        } // just ignore I guess
-
-        String[] urlSection = capeUrl.split("/"); // A real url is expected at this stage
+    private static CompletableFuture<Cape> supplyCape(String capeUrl, CapeProvider provider) {
+        return requestImageData(capeUrl, provider == CapeProvider.FIVEZIG ? TextureType.FIVEZIG_CAPE : TextureType.CAPE)
+                .thenApply(RgbaImage::data)
+                .exceptionally(throwable -> EMPTY_CAPE.capeData()) // just ignore I guess
+                .thenApply(cape -> {
+                    String[] urlSection = capeUrl.split("/"); // A real url is expected at this stage
 
-        return new Cape(
-                capeUrl,
-                urlSection[urlSection.length - 1], // get the texture id and use it as cape id
-                cape,
-                System.currentTimeMillis(),
-                cape.length == 0
-        );
+                    return new Cape(
+                            capeUrl,
+                            urlSection[urlSection.length - 1], // get the texture id and use it as cape id
+                            cape,
+                            System.currentTimeMillis(),
+                            cape.length == 0
+                    );
+                });
     }
 
     /**
@@ -506,11 +531,9 @@ public class SkinProvider {
      * @param earsUrl The URL to get the ears texture from
      * @return The updated skin with ears
      */
-    private static Skin supplyEars(Skin existingSkin, String earsUrl) {
-        try {
-            // Get the ears texture
-            BufferedImage ears = ImageIO.read(new URL(earsUrl));
-            if (ears == null) throw new NullPointerException();
+    private static CompletableFuture<Skin> supplyEars(Skin existingSkin, String earsUrl) {
+        return requestImageData(earsUrl, TextureType.EARS).thenApplyAsync(earsData -> {
+            BufferedImage ears = imageDataToBufferedImage(earsData.data(), earsData.width(), earsData.height());
 
             // Convert the skin data to a BufferedImage
             int height = (existingSkin.getSkinData().length / 4 / 64);
@@ -535,44 +558,63 @@ public class SkinProvider {
                     true,
                     true
             );
-        } catch (Exception ignored) {} // just ignore I guess
-
-        return existingSkin;
+        }, getConversionExecutor()).exceptionally(throwable -> existingSkin); // just ignore I guess
     }
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
+    /**
+     * Requests an image and converts it to the format Bedrock expects. This blocks until the image is available.
+     */
     public static BufferedImage requestImage(String imageUrl, CapeProvider provider) throws IOException {
-        BufferedImage image = null;
-
-        // First see if we have a cached file. We also update the modification stamp so we know when the file was last used
-        File imageFile = GeyserImpl.getInstance().getBootstrap().getConfigFolder().resolve("cache").resolve("images").resolve(UUID.nameUUIDFromBytes(imageUrl.getBytes()) + ".png").toFile();
-        if (imageFile.exists()) {
-            try {
-                GeyserImpl.getInstance().getLogger().debug("Reading cached image from file " + imageFile.getPath() + " for " + imageUrl);
-                imageFile.setLastModified(System.currentTimeMillis());
-                image = ImageIO.read(imageFile);
-            } catch (IOException ignored) {}
+        TextureType type = provider == null ? TextureType.SKIN : (provider == CapeProvider.FIVEZIG ? TextureType.FIVEZIG_CAPE : TextureType.CAPE);
+        try {
+            RgbaImage image = requestImageData(imageUrl, type).join();
+            return imageDataToBufferedImage(image.data(), image.width(), image.height());
+        } catch (CompletionException e) {
+            throw new IOException("Failed to request image from " + imageUrl, e.getCause());
         }
+    }
 
-        // If no image we download it
-        if (image == null) {
-            image = downloadImage(imageUrl, provider);
-            GeyserImpl.getInstance().getLogger().debug("Downloaded " + imageUrl);
+    /**
+     * Reads the converted image from the texture store if possible, and otherwise downloads and converts it.
+     */
+    private static CompletableFuture<RgbaImage> requestImageData(String imageUrl, TextureType type) {
+        SkinTextureStore store = getTextureStore();
+        String key = SkinTextureStore.keyFor(imageUrl, type.storeSuffix);
+        CompletableFuture<RgbaImage> stored = store == null ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.supplyAsync(() -> store.read(key), getConversionExecutor());
+
+        return stored.thenCompose(image -> {
+            if (image != null) {
+                GeyserImpl.getInstance().getLogger().debug("Read stored texture " + key + " for " + imageUrl);
+                return CompletableFuture.completedFuture(image);
+            }
 
-            // Write to cache if we are allowed
-            if (GeyserImpl.getInstance().getConfig().getCacheImages() > 0) {
-                imageFile.getParentFile().mkdirs();
+            return TextureDownloader.download(imageUrl).thenApplyAsync(bytes -> {
+                GeyserImpl.getInstance().getLogger().debug("Downloaded " + imageUrl);
+                BufferedImage decoded;
                 try {
-                    ImageIO.write(image, "png", imageFile);
-                    GeyserImpl.getInstance().getLogger().debug("Writing cached skin to file " + imageFile.getPath() + " for " + imageUrl);
+                    decoded = type == TextureType.FIVEZIG_CAPE ? readFiveZigCape(bytes) : ImageIO.read(new ByteArrayInputStream(bytes));
                 } catch (IOException e) {
-                    GeyserImpl.getInstance().getLogger().error("Failed to write cached skin to file " + imageFile.getPath() + " for " + imageUrl);
+                    throw new CompletionException(e);
                 }
-            }
-        }
+                if (decoded == null) {
+                    throw new IllegalArgumentException("Failed to read image from: %s (type=%s)".formatted(imageUrl, type));
+                }
+
+                BufferedImage converted = convertImage(decoded, type);
+                RgbaImage result = new RgbaImage(converted.getWidth(), converted.getHeight(), bufferedImageToImageData(converted));
+                converted.flush();
+                if (store != null) {
+                    store.write(key, result);
+                }
+                return result;
+            }, getConversionExecutor());
+        });
+    }
 
+    private static BufferedImage convertImage(BufferedImage image, TextureType type) {
         // if the requested image is a cape
-        if (provider != null) {
+        if (type == TextureType.CAPE || type == TextureType.FIVEZIG_CAPE) {
             if (image.getWidth() > 64 || image.getHeight() > 32) {
                 // Prevent weirdly-scaled capes from being cut off
                 BufferedImage newImage = new BufferedImage(128, 64, BufferedImage.TYPE_INT_ARGB);
@@ -590,7 +632,7 @@ public class SkinProvider {
                 image.flush();
                 image = newImage;
             }
-        } else {
+        } else if (type == TextureType.SKIN) {
             // Very rarely, skins can be larger than Minecraft's default.
             // Bedrock will not render anything above a width of 128.
             if (image.getWidth() > 128) {
@@ -604,13 +646,6 @@ public class SkinProvider {
         return image;
     }
 
-    private static byte[] requestImageData(String imageUrl, CapeProvider provider) throws Exception {
-        BufferedImage image = requestImage(imageUrl, provider);
-        byte[] data = bufferedImageToImageData(image);
-        image.flush();
-        return data;
-    }
-
     /**
      * Request textures from a player's UUID
      *
@@ -668,27 +703,8 @@ public class SkinProvider {
         });
     }
 
-    private static BufferedImage downloadImage(String imageUrl, CapeProvider provider) throws IOException {
-        BufferedImage image;
-        if (provider == CapeProvider.FIVEZIG) {
-            image = readFiveZigCape(imageUrl);
-        } else {
-            HttpURLConnection con = (HttpURLConnection) new URL(imageUrl).openConnection();
-            con.setRequestProperty("User-Agent", "Geyser-" + GeyserImpl.getInstance().getPlatformType().toString() + "/" + GeyserImpl.VERSION);
-            con.setConnectTimeout(10000);
-            con.setReadTimeout(10000);
-
-            image = ImageIO.read(con.getInputStream());
-        }
-
-        if (image == null) {
-            throw new IllegalArgumentException("Failed to read image from: %s (cape provider=%s)".formatted(imageUrl, provider));
-        }
-        return image;
-    }
-
-    private static @Nullable BufferedImage readFiveZigCape(String url) throws IOException {
-        JsonNode element = GeyserImpl.JSON_MAPPER.readTree(WebUtils.getBody(url));
+    private static @Nullable BufferedImage readFiveZigCape(byte[] body) throws IOException {
+        JsonNode element = GeyserImpl.JSON_MAPPER.readTree(body);
         if (element != null && element.isObject()) {
             JsonNode capeElement = element.get("d");
             if (capeElement == null || capeElement.isNull()) return null;
@@ -698,27 +714,11 @@ public class SkinProvider {
     }
 
     public static BufferedImage scale(BufferedImage bufferedImage, int newWidth, int newHeight) {
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2 = resized.createGraphics();
-        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2.drawImage(bufferedImage, 0, 0, newWidth, newHeight, null);
-        g2.dispose();
+        BufferedImage resized = TextureConverter.scale(bufferedImage, newWidth, newHeight);
         bufferedImage.flush();
         return resized;
     }
 
-    /**
-     * Get the RGBA int for a given index in some image data
-     *
-     * @param index Index to get
-     * @param data Image data to find in
-     * @return An int representing RGBA
-     */
-    private static int getRGBA(int index, byte[] data) {
-        return (data[index] & 0xFF) << 16 | (data[index + 1] & 0xFF) << 8 |
-                data[index + 2] & 0xFF | (data[index + 3] & 0xFF) << 24;
-    }
-
     /**
      * Convert a byte[] to a BufferedImage
      *
@@ -728,16 +728,7 @@ public class SkinProvider {
      * @return The converted BufferedImage
      */
     public static BufferedImage imageDataToBufferedImage(byte[] imageData, int imageWidth, int imageHeight) {
-        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
-        int index = 0;
-        for (int y = 0; y < imageHeight; y++) {
-            for (int x = 0; x < imageWidth; x++) {
-                image.setRGB(x, y, getRGBA(index, imageData));
-                index += 4;
-            }
-        }
-
-        return image;
+        return TextureConverter.fromRgba(imageData, imageWidth, imageHeight);
     }
 
     /**
@@ -747,17 +738,7 @@ public class SkinProvider {
      * @return The converted byte[]
      */
     public static byte[] bufferedImageToImageData(BufferedImage image) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(image.getWidth() * 4 + image.getHeight() * 4);
-        for (int y = 0; y < image.getHeight(); y++) {
-            for (int x = 0; x < image.getWidth(); x++) {
-                int rgba = image.getRGB(x, y);
-                outputStream.write((rgba >> 16) & 0xFF);
-                outputStream.write((rgba >> 8) & 0xFF);
-                outputStream.write(rgba & 0xFF);
-                outputStream.write((rgba >> 24) & 0xFF);
-            }
-        }
-        return outputStream.toByteArray();
+        return TextureConverter.toRgba(image);
     }
 
     public static <T> T getOrDefault(CompletableFuture<T> future, T defaultValue, int timeoutInSeconds) {
@@ -767,9 +748,42 @@ public class SkinProvider {
         return defaultValue;
     }
 
+    /**
+     * The non-blocking version of {@link #getOrDefault(CompletableFuture, Object, int)}. The given future is not modified.
+     */
+    private static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, T defaultValue, int timeoutInSeconds) {
+        return future.exceptionally(throwable -> defaultValue)
+                .completeOnTimeout(defaultValue, timeoutInSeconds, TimeUnit.SECONDS);
+    }
+
     public record SkinAndCape(Skin skin, Cape cape) {
     }
 
+    /**
+     * An image converted to the RGBA bytes Bedrock expects.
+     */
+    public record RgbaImage(int width, int height, byte[] data) {
+    }
+
+    private enum TextureType {
+        SKIN(""),
+        CAPE("-cape"),
+        /**
+         * 5zig serves capes as base64 in a JSON object
+         */
+        FIVEZIG_CAPE("-cape"),
+        /**
+         * The ears texture on its own, before it is drawn onto a skin
+         */
+        EARS("-ears");
+
+        private final String storeSuffix;
+
+        TextureType(String storeSuffix) {
+            this.storeSuffix = storeSuffix;
+        }
+    }
+
     /**
      * Represents a full package of skin, cape, and geometry.
      */
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2019-2022 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.skin;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.math.vector.Vector3f;
+import org.cloudburstmc.protocol.bedrock.packet.PlayerListPacket;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.entity.type.player.PlayerEntity;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends tab list entries with a small placeholder skin first, and streams the real skins afterwards with
+ * {@link org.cloudburstmc.protocol.bedrock.packet.PlayerSkinPacket}s, so joining a busy server doesn't have to wait
+ * for every skin in the tab list.
+ * <p>
+ * Players in the world are streamed first, closest first. Skins are sent within a budget of bytes per second.
+ * <p>
+ * Every method must be called from the session's event loop, except {@link #markSent(UUID, SkinProvider.SkinData)}.
+ */
+public final class SkinStreamer {
+    /**
+     * A fully transparent legacy skin - the smallest skin Bedrock accepts.
+     */
+    private static final SkinProvider.Skin PLACEHOLDER_SKIN = new SkinProvider.Skin(-1, "geysermc:placeholder", new byte[64 * 32 * 4]);
+    /**
+     * How many bytes a skin is assumed to take until it has been loaded.
+     */
+    private static final int ESTIMATED_SKIN_BYTES = 64 * 64 * 4;
+
+    private final GeyserSession session;
+    private final long bytesPerTick;
+    private final long maxBudget;
+    private final long createdNanos = System.nanoTime();
+
+    private final Map<UUID, PlayerEntity> pending = new LinkedHashMap<>();
+    private long budget;
+
+    private long skinBytes = 0;
+    private long placeholders = 0;
+    private long joinToPlayableMillis = -1;
+
+    private SkinStreamer(GeyserSession session, int bytesPerSecond) {
+        this.session = session;
+        this.bytesPerTick = Math.max(bytesPerSecond / 20, 1);
+        this.maxBudget = Math.max(bytesPerSecond, ESTIMATED_SKIN_BYTES);
+        this.budget = maxBudget;
+    }
+
+    /**
+     * @return a new skin streamer for this session, or null if tab list entries should be sent with their skins
+     */
+    public static @Nullable SkinStreamer create(GeyserSession session) {
+        GeyserConfiguration config = GeyserImpl.getInstance().getConfig();
+        if (!config.isStreamTabListSkins()) {
+            return null;
+        }
+        return new SkinStreamer(session, config.getSkinStreamBytesPerSecond());
+    }
+
+    /**
+     * Builds a tab list entry with a placeholder skin, and queues the real skin to be sent later.
+     */
+    public PlayerListPacket.Entry buildPlaceholderEntry(PlayerEntity entity) {
+        if (entity.getUuid().equals(session.getPlayerEntity().getUuid())) {
+            // The player should always see their own skin straight away
+            return SkinManager.buildCachedEntry(session, entity);
+        }
+
+        pending.put(entity.getUuid(), entity);
+        placeholders++;
+        return SkinManager.buildEntryManually(session, entity.getUuid(), entity.getUsername(), entity.getGeyserId(),
+                PLACEHOLDER_SKIN, SkinProvider.EMPTY_CAPE, SkinProvider.SkinGeometry.WIDE);
+    }
+
+    /**
+     * Called whenever a real skin was sent for this player, for example because they spawned in the world.
+     */
+    void markSent(UUID uuid, SkinProvider.SkinData skinData) {
+        long bytes = skinData.skin().getSkinData().length + skinData.cape().capeData().length;
+        session.ensureInEventLoop(() -> {
+            pending.remove(uuid);
+            skinBytes += bytes;
+            budget -= bytes;
+        });
+    }
+
+    /**
+     * Called once the player has spawned in and is able to move.
+     */
+    public void markPlayable() {
+        if (joinToPlayableMillis == -1) {
+            joinToPlayableMillis = (System.nanoTime() - createdNanos) / 1_000_000;
+        }
+    }
+
+    public void tick() {
+        budget = Math.min(budget + bytesPerTick, maxBudget);
+        if (pending.isEmpty() || budget <= 0) {
+            return;
+        }
+
+        List<PlayerEntity> queue = new ArrayList<>(pending.values());
+        Vector3f position = session.getPlayerEntity().getPosition();
+        // Players that aren't in the world keep the order they were listed in
+        queue.sort(Comparator.comparingDouble(entity -> entity.getEntityId() == -1 ? Double.MAX_VALUE : entity.getPosition().distanceSquared(position)));
+
+        for (PlayerEntity entity : queue) {
+            if (budget <= 0) {
+                break;
+            }
+            pending.remove(entity.getUuid());
+            if (session.getEntityCache().getPlayerEntity(entity.getUuid()) != entity) {
+                // No longer on the tab list
+                continue;
+            }
+
+            budget -= ESTIMATED_SKIN_BYTES;
+            SkinProvider.requestSkinData(entity).whenComplete((skinData, throwable) -> session.ensureInEventLoop(() -> {
+                // The actual size is counted once the skin is sent
+                budget += ESTIMATED_SKIN_BYTES;
+                if (skinData == null || skinData.geometry() == null || session.getUpstream().isClosed()
+                        || session.getEntityCache().getPlayerEntity(entity.getUuid()) != entity) {
+                    return;
+                }
+                SkinManager.sendSkinPacket(session, entity, skinData);
+            }));
+        }
+    }
+
+    public long skinBytes() {
+        return skinBytes;
+    }
+
+    public long placeholders() {
+        return placeholders;
+    }
+
+    public int pendingSkins() {
+        return pending.size();
+    }
+
+    /**
+     * @return how long it took from connecting until the player could move, or -1 if they can't move yet
+     */
+    public long joinToPlayableMillis() {
+        return joinToPlayableMillis;
+    }
+}
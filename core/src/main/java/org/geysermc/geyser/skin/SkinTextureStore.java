@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.skin;
+
+import com.google.common.hash.Hashing;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Stores converted textures on disk as raw RGBA, so they never have to be downloaded or decoded again.
+ * <p>
+ * Textures are keyed by their hash - for official Minecraft textures this is part of the URL, and for third party
+ * textures the URL itself is hashed.
+ */
+final class SkinTextureStore {
+    private static final int MAGIC = 0x47525241; // GRRA
+    private static final Pattern TEXTURE_HASH = Pattern.compile("[0-9a-f]{32,128}");
+
+    private final Path folder;
+    /**
+     * Keys that have had their modification time updated this run, so expiry knows they are still in use.
+     */
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    SkinTextureStore(Path folder) {
+        this.folder = folder;
+    }
+
+    static String keyFor(String textureUrl, String suffix) {
+        String hash = null;
+        int index = textureUrl.lastIndexOf('/');
+        if (textureUrl.contains("textures.minecraft.net/texture/") && index != -1) {
+            hash = textureUrl.substring(index + 1);
+            if (!TEXTURE_HASH.matcher(hash).matches()) {
+                hash = null;
+            }
+        }
+        if (hash == null) {
+            hash = Hashing.sha256().hashString(textureUrl, StandardCharsets.UTF_8).toString();
+        }
+        return hash + suffix;
+    }
+
+    @Nullable SkinProvider.RgbaImage read(String key) {
+        Path file = folder.resolve(key + ".rgba");
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            GeyserImpl.getInstance().getLogger().debug("Unable to read stored texture " + file + ": " + e.getMessage());
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            if (width <= 0 || height <= 0 || bytes.length - 12 != width * height * 4) {
+                return null;
+            }
+            byte[] data = new byte[width * height * 4];
+            in.readFully(data);
+
+            if (touched.add(key)) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            return new SkinProvider.RgbaImage(width, height, data);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    void write(String key, SkinProvider.RgbaImage image) {
+        Path file = folder.resolve(key + ".rgba");
+        try {
+            Files.createDirectories(folder);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(12 + image.data().length);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeInt(image.width());
+                out.writeInt(image.height());
+                out.write(image.data());
+            }
+            // Write to a temporary file first so a crash never leaves half a texture behind
+            Path temp = Files.createTempFile(folder, key, ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            touched.add(key);
+        } catch (IOException e) {
+            GeyserImpl.getInstance().getLogger().error("Failed to store texture " + file, e);
+        }
+    }
+}
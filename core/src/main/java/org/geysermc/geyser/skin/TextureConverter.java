@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.skin;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Converts between images and the RGBA bytes Bedrock uses for skins, reading and writing the image rasters directly
+ * instead of going through {@link BufferedImage#getRGB(int, int)} and {@link BufferedImage#setRGB(int, int, int)}
+ * for every pixel.
+ */
+final class TextureConverter {
+
+    /**
+     * @return the pixels of the image as RGBA bytes, row by row
+     */
+    static byte[] toRgba(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] rgba = new byte[width * height * 4];
+
+        Raster raster = image.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        int originX = -raster.getSampleModelTranslateX();
+        int originY = -raster.getSampleModelTranslateY();
+        boolean standardColors = image.getColorModel().getColorSpace().isCS_sRGB() && !image.isAlphaPremultiplied();
+
+        if ((image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB)
+                && raster.getDataBuffer() instanceof DataBufferInt buffer && sampleModel instanceof SinglePixelPackedSampleModel packedModel) {
+            int[] pixels = buffer.getData();
+            int stride = packedModel.getScanlineStride();
+            int offset = buffer.getOffset() + packedModel.getOffset(originX, originY);
+            int alphaMask = image.getType() == BufferedImage.TYPE_INT_ARGB ? 0 : 0xFF000000;
+            int index = 0;
+            for (int y = 0; y < height; y++) {
+                int row = offset + y * stride;
+                for (int x = 0; x < width; x++) {
+                    index = writeArgb(rgba, index, pixels[row + x] | alphaMask);
+                }
+            }
+            return rgba;
+        }
+
+        if (standardColors && raster.getDataBuffer() instanceof DataBufferByte buffer && sampleModel instanceof ComponentSampleModel componentModel
+                && (componentModel.getNumBands() == 3 || componentModel.getNumBands() == 4)
+                && componentModel.getPixelStride() == componentModel.getNumBands()) {
+            // Most PNGs decode into interleaved RGB(A) bytes, in some band order
+            byte[] pixels = buffer.getData();
+            int stride = componentModel.getScanlineStride();
+            int pixelStride = componentModel.getPixelStride();
+            int[] bandOffsets = componentModel.getBandOffsets();
+            int red = bandOffsets[0];
+            int green = bandOffsets[1];
+            int blue = bandOffsets[2];
+            boolean hasAlpha = componentModel.getNumBands() == 4;
+            int alpha = hasAlpha ? bandOffsets[3] : 0;
+            int offset = buffer.getOffset() + originY * stride + originX * pixelStride;
+            int index = 0;
+            for (int y = 0; y < height; y++) {
+                int pixel = offset + y * stride;
+                for (int x = 0; x < width; x++) {
+                    rgba[index++] = pixels[pixel + red];
+                    rgba[index++] = pixels[pixel + green];
+                    rgba[index++] = pixels[pixel + blue];
+                    rgba[index++] = hasAlpha ? pixels[pixel + alpha] : (byte) 0xFF;
+                    pixel += pixelStride;
+                }
+            }
+            return rgba;
+        }
+
+        // Any other layout, such as indexed colors - let Java2D convert a row at a time
+        int[] row = new int[width];
+        int index = 0;
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                index = writeArgb(rgba, index, row[x]);
+            }
+        }
+        return rgba;
+    }
+
+    /**
+     * @return a new {@link BufferedImage#TYPE_INT_ARGB} image with the given RGBA bytes
+     */
+    static BufferedImage fromRgba(byte[] rgba, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int index = 0;
+        for (int i = 0; i < width * height; i++) {
+            pixels[i] = (rgba[index] & 0xFF) << 16 | (rgba[index + 1] & 0xFF) << 8 | rgba[index + 2] & 0xFF | (rgba[index + 3] & 0xFF) << 24;
+            index += 4;
+        }
+        return image;
+    }
+
+    /**
+     * Resizes the image with bilinear filtering, sampling at pixel centers. Scaling down by half, which is what
+     * happens to large capes, averages each two by two block.
+     */
+    static BufferedImage scale(BufferedImage image, int newWidth, int newHeight) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] source = toArgb(image);
+
+        int[] x0 = new int[newWidth];
+        int[] x1 = new int[newWidth];
+        int[] xWeight = new int[newWidth];
+        computeSamples(width, newWidth, x0, x1, xWeight);
+        int[] y0 = new int[newHeight];
+        int[] y1 = new int[newHeight];
+        int[] yWeight = new int[newHeight];
+        computeSamples(height, newHeight, y0, y1, yWeight);
+
+        BufferedImage resized = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
+        int[] target = ((DataBufferInt) resized.getRaster().getDataBuffer()).getData();
+        int index = 0;
+        for (int y = 0; y < newHeight; y++) {
+            int top = y0[y] * width;
+            int bottom = y1[y] * width;
+            int fy = yWeight[y];
+            for (int x = 0; x < newWidth; x++) {
+                int fx = xWeight[x];
+                int topPixel = lerp(source[top + x0[x]], source[top + x1[x]], fx);
+                int bottomPixel = lerp(source[bottom + x0[x]], source[bottom + x1[x]], fx);
+                target[index++] = lerp(topPixel, bottomPixel, fy);
+            }
+        }
+        return resized;
+    }
+
+    /**
+     * @return the pixels of the image as ARGB ints, without any padding between rows
+     */
+    private static int[] toArgb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Raster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB && raster.getDataBuffer() instanceof DataBufferInt buffer
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel packedModel
+                && packedModel.getScanlineStride() == width && buffer.getOffset() == 0
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0) {
+            return buffer.getData();
+        }
+        return image.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    /**
+     * Computes the two source pixels and the weight of the second one, out of 256, for each target pixel.
+     */
+    private static void computeSamples(int sourceSize, int targetSize, int[] first, int[] second, int[] weight) {
+        double ratio = (double) sourceSize / targetSize;
+        for (int i = 0; i < targetSize; i++) {
+            double center = Math.max(0, (i + 0.5) * ratio - 0.5);
+            int floor = Math.min((int) center, sourceSize - 1);
+            first[i] = floor;
+            second[i] = Math.min(floor + 1, sourceSize - 1);
+            weight[i] = (int) Math.round((center - floor) * 256);
+        }
+    }
+
+    /**
+     * Interpolates each channel of two ARGB pixels
+     */
+    private static int lerp(int a, int b, int weight) {
+        if (weight == 0 || a == b) {
+            return a;
+        }
+        int inverse = 256 - weight;
+        int alpha = (((a >>> 24) * inverse + (b >>> 24) * weight) + 128) >> 8;
+        int red = ((((a >> 16) & 0xFF) * inverse + ((b >> 16) & 0xFF) * weight) + 128) >> 8;
+        int green = ((((a >> 8) & 0xFF) * inverse + ((b >> 8) & 0xFF) * weight) + 128) >> 8;
+        int blue = (((a & 0xFF) * inverse + (b & 0xFF) * weight) + 128) >> 8;
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+
+    private static int writeArgb(byte[] rgba, int index, int argb) {
+        rgba[index++] = (byte) (argb >> 16); // Red
+        rgba[index++] = (byte) (argb >> 8); // Green
+        rgba[index++] = (byte) argb; // Blue
+        rgba[index++] = (byte) (argb >>> 24); // Alpha
+        return index;
+    }
+
+    private TextureConverter() {
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.skin;
+
+import org.geysermc.geyser.GeyserImpl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Downloads skin textures without blocking a thread per request, limiting how many requests run at once per host
+ * so that a lot of players joining at the same time does not get Geyser rate limited.
+ */
+final class TextureDownloader {
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private static final Map<String, HostLimit> HOSTS = new ConcurrentHashMap<>();
+
+    static CompletableFuture<byte[]> download(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HostLimit limit = HOSTS.computeIfAbsent(String.valueOf(uri.getHost()), host -> new HostLimit());
+        return limit.acquire().thenCompose(ignored -> {
+            CompletableFuture<HttpResponse<byte[]>> response;
+            try {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(TIMEOUT)
+                        .header("User-Agent", "Geyser-" + GeyserImpl.getInstance().getPlatformType().toString() + "/" + GeyserImpl.VERSION)
+                        .GET()
+                        .build();
+                response = CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (Exception e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            return response.whenComplete((r, throwable) -> limit.release());
+        }).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new CompletionException(new IOException("Received status code " + response.statusCode() + " from " + url));
+            }
+            return response.body();
+        });
+    }
+
+    private static final class HostLimit {
+        private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+        private int available = MAX_REQUESTS_PER_HOST;
+
+        synchronized CompletableFuture<Void> acquire() {
+            if (available > 0) {
+                available--;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            waiting.add(future);
+            return future;
+        }
+
+        void release() {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            // Hand the permit straight to the next request
+            next.complete(null);
+        }
+    }
+
+    private TextureDownloader() {
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.translator.inventory.item;
+
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.ListTag;
+import com.github.steveice10.opennbt.tag.builtin.Tag;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.protocol.bedrock.data.inventory.ItemData;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A size-bounded cache of translated items, shared between all sessions.
+ * <p>
+ * Servers with item-based menus send the same items over and over. Items are keyed by everything their translation
+ * depends on: the Java item, the count, a hash of the NBT, the session's locale, Bedrock version and tooltip settings.
+ * Net IDs are per session and are never part of a cached item.
+ */
+public final class ItemTranslationCache {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static Cache<Key, ItemData> CACHE = null;
+
+    /**
+     * (Re)initializes the cache.
+     *
+     * @param maximumSize the maximum amount of items to hold, or 0 to disable the cache
+     */
+    public static void init(int maximumSize) {
+        if (maximumSize <= 0) {
+            CACHE = null;
+            return;
+        }
+        CACHE = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public static boolean isEnabled() {
+        return CACHE != null;
+    }
+
+    /**
+     * @param translator translates the item if it is not cached yet
+     * @return the translated item, which may be shared with other sessions
+     */
+    static ItemData translate(GeyserSession session, int javaId, int count, @Nullable CompoundTag tag, Supplier<ItemData> translator) {
+        Cache<Key, ItemData> cache = CACHE;
+        if (cache == null || (tag != null && tag.contains("LodestoneTracked"))) {
+            // Lodestone compasses are registered with the session while they are translated
+            return translator.get();
+        }
+
+        HashCode nbtHash = null;
+        if (tag != null) {
+            Hasher hasher = HASH_FUNCTION.newHasher();
+            hashTag(hasher, tag);
+            nbtHash = hasher.hash();
+        }
+        Key key = new Key(session.getUpstream().getProtocolVersion(), javaId, count, nbtHash, session.locale(), session.isAdvancedTooltips());
+        try {
+            return cache.get(key, translator::get);
+        } catch (ExecutionException e) {
+            GeyserImpl.getInstance().getLogger().debug("Could not cache translated item: " + e.getCause());
+            return translator.get();
+        }
+    }
+
+    private static void hashTag(Hasher hasher, Tag tag) {
+        hasher.putInt(tag.getClass().getSimpleName().hashCode());
+        hasher.putUnencodedChars(tag.getName() == null ? "" : tag.getName());
+        if (tag instanceof CompoundTag compoundTag) {
+            hasher.putInt(compoundTag.size());
+            for (Tag child : compoundTag.values()) {
+                hashTag(hasher, child);
+            }
+        } else if (tag instanceof ListTag listTag) {
+            hasher.putInt(listTag.size());
+            for (Tag child : listTag) {
+                hashTag(hasher, child);
+            }
+        } else {
+            Object value = tag.getValue();
+            if (value instanceof byte[] bytes) {
+                hasher.putInt(bytes.length).putBytes(bytes);
+            } else if (value instanceof int[] ints) {
+                hasher.putInt(ints.length);
+                for (int i : ints) {
+                    hasher.putInt(i);
+                }
+            } else if (value instanceof long[] longs) {
+                hasher.putInt(longs.length);
+                for (long l : longs) {
+                    hasher.putLong(l);
+                }
+            } else if (value instanceof String string) {
+                hasher.putInt(string.length()).putUnencodedChars(string);
+            } else if (value instanceof Float f) {
+                hasher.putFloat(f);
+            } else if (value instanceof Double d) {
+                hasher.putDouble(d);
+            } else if (value instanceof Number number) {
+                hasher.putLong(number.longValue());
+            }
+        }
+    }
+
+    public static long size() {
+        Cache<Key, ItemData> cache = CACHE;
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of this cache, or null if the cache is disabled
+     */
+    public static @Nullable CacheStats stats() {
+        Cache<Key, ItemData> cache = CACHE;
+        return cache == null ? null : cache.stats();
+    }
+
+    private record Key(int protocolVersion, int javaId, int count, @Nullable HashCode nbtHash, String locale, boolean advancedTooltips) {
+    }
+
+    private ItemTranslationCache() {
+    }
+}
@@ -114,7 +114,12 @@ public final class ItemTranslator {
             session.getGeyser().getLogger().debug("ItemMapping returned air: " + javaId);
             return ItemData.builder();
         }
-        return translateToBedrock(session, Registries.JAVA_ITEMS.get().get(javaId), bedrockItem, count, tag);
+        Item javaItem = Registries.JAVA_ITEMS.get().get(javaId);
+        if (ItemTranslationCache.isEnabled()) {
+            return ItemTranslationCache.translate(session, javaId, count, tag,
+                    () -> translateToBedrock(session, javaItem, bedrockItem, count, tag).build()).toBuilder();
+        }
+        return translateToBedrock(session, javaItem, bedrockItem, count, tag);
     }
 
     @NonNull
@@ -129,8 +134,9 @@ public final class ItemTranslator {
             return ItemData.AIR;
         }
         // Java item needs to be loaded separately. The mapping for tipped arrow would
-        return translateToBedrock(session, Registries.JAVA_ITEMS.get().get(stack.getId()), bedrockItem, stack.getAmount(), stack.getNbt())
-                .build();
+        Item javaItem = Registries.JAVA_ITEMS.get().get(stack.getId());
+        return ItemTranslationCache.translate(session, stack.getId(), stack.getAmount(), stack.getNbt(),
+                () -> translateToBedrock(session, javaItem, bedrockItem, stack.getAmount(), stack.getNbt()).build());
     }
 
     private static ItemData.@NonNull Builder translateToBedrock(GeyserSession session, Item javaItem, ItemMapping bedrockItem, int count, CompoundTag tag) {
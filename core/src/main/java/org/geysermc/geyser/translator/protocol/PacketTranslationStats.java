@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.translator.protocol;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how long packet translators take, per packet type - both over all sessions and for every session.
+ * The part of a translation that runs on a chunk translation worker thread is measured separately.
+ * <p>
+ * Latencies are kept in histograms with a bucket for every power of two nanoseconds, so percentiles are accurate
+ * to within a factor of two while recording stays cheap.
+ */
+public final class PacketTranslationStats {
+    private static final int BUCKETS = 40;
+
+    private static final PacketTranslationStats GLOBAL = new PacketTranslationStats();
+    private static boolean ENABLED = false;
+    private static long SLOW_TRANSLATION_NANOS = 0;
+
+    private final Map<Class<?>, PacketStats> stats = new ConcurrentHashMap<>();
+    private final Map<Class<?>, PacketStats> workerStats = new ConcurrentHashMap<>();
+
+    private PacketTranslationStats() {
+    }
+
+    /**
+     * (Re)initializes the statistics.
+     *
+     * @param enabled whether translation times should be collected
+     * @param slowTranslationMillis translations taking at least this long are logged, or 0 to disable logging
+     */
+    public static void init(boolean enabled, int slowTranslationMillis) {
+        ENABLED = enabled;
+        SLOW_TRANSLATION_NANOS = slowTranslationMillis * 1_000_000L;
+        GLOBAL.stats.clear();
+        GLOBAL.workerStats.clear();
+    }
+
+    /**
+     * @return whether translations need to be timed at all
+     */
+    public static boolean isTiming() {
+        return ENABLED || SLOW_TRANSLATION_NANOS > 0;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return new statistics for a session, or null if statistics are disabled
+     */
+    public static @Nullable PacketTranslationStats create() {
+        return ENABLED ? new PacketTranslationStats() : null;
+    }
+
+    public static PacketTranslationStats global() {
+        return GLOBAL;
+    }
+
+    public static void record(GeyserSession session, Class<?> packetClass, long nanos) {
+        record(session, packetClass, nanos, false);
+    }
+
+    /**
+     * Records the part of a translation that ran on a chunk translation worker thread, after the translator itself
+     * has returned. May be called from any thread.
+     */
+    public static void recordWorker(GeyserSession session, Class<?> packetClass, long nanos) {
+        record(session, packetClass, nanos, true);
+    }
+
+    private static void record(GeyserSession session, Class<?> packetClass, long nanos, boolean worker) {
+        if (ENABLED) {
+            GLOBAL.add(packetClass, nanos, worker);
+            PacketTranslationStats sessionStats = session.getPacketTranslationStats();
+            if (sessionStats != null) {
+                sessionStats.add(packetClass, nanos, worker);
+            }
+        }
+        if (SLOW_TRANSLATION_NANOS > 0 && nanos >= SLOW_TRANSLATION_NANOS) {
+            GeyserImpl.getInstance().getLogger().warning("Translating " + packetClass.getSimpleName() + (worker ? " on a worker thread" : "")
+                    + " for " + session.bedrockUsername() + " took " + String.format("%.2f", nanos / 1_000_000D) + "ms");
+        }
+    }
+
+    private void add(Class<?> packetClass, long nanos, boolean worker) {
+        Map<Class<?>, PacketStats> stats = worker ? this.workerStats : this.stats;
+        PacketStats packetStats = stats.get(packetClass);
+        if (packetStats == null) {
+            packetStats = stats.computeIfAbsent(packetClass, key -> new PacketStats());
+        }
+        packetStats.record(nanos);
+    }
+
+    /**
+     * @param limit the maximum amount of packet types to return
+     * @return the packet types that took the most time in total, slowest first
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(stats.size() + workerStats.size());
+        for (Map.Entry<Class<?>, PacketStats> entry : stats.entrySet()) {
+            entries.add(entry.getValue().toEntry(entry.getKey().getSimpleName(), false));
+        }
+        for (Map.Entry<Class<?>, PacketStats> entry : workerStats.entrySet()) {
+            entries.add(entry.getValue().toEntry(entry.getKey().getSimpleName(), true));
+        }
+        entries.sort(Comparator.comparingDouble(Entry::totalMillis).reversed());
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    /**
+     * @param worker whether this is the time spent on chunk translation worker threads, rather than in the translator
+     */
+    public record Entry(String packet, boolean worker, long count, double totalMillis, double averageMillis, double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    private static final class PacketStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        /**
+         * Bucket i counts the translations that took less than 2^i nanoseconds, but at least 2^(i - 1).
+         */
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)), BUCKETS - 1));
+        }
+
+        /**
+         * @return the upper bound of the bucket the quantile falls into, in milliseconds
+         */
+        private double quantileMillis(double quantile, long count) {
+            long target = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen != 0) {
+                    return Math.min(1L << i, maxNanos.get()) / 1_000_000D;
+                }
+            }
+            return maxNanos.get() / 1_000_000D;
+        }
+
+        private Entry toEntry(String packet, boolean worker) {
+            long count = this.count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000D;
+            return new Entry(packet, worker, count, totalMillis, count == 0 ? 0 : totalMillis / count, quantileMillis(0.5, count),
+                    quantileMillis(0.99, count), maxNanos.get() / 1_000_000D);
+        }
+    }
+}
@@ -25,6 +25,7 @@
 
 package org.geysermc.geyser.translator.protocol;
 
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
 import org.geysermc.geyser.session.GeyserSession;
 
 public abstract class PacketTranslator<T> {
@@ -38,4 +39,12 @@ public abstract class PacketTranslator<T> {
     public boolean shouldExecuteInEventLoop() {
         return true;
     }
+
+    /**
+     * Determines if this packet depends on chunks that came before it, and must therefore wait for any chunks
+     * that are still being translated by the {@link ChunkTranslationPipeline}.
+     */
+    public boolean isOrderedWithChunks() {
+        return false;
+    }
 }
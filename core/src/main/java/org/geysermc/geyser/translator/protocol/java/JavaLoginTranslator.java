@@ -144,4 +144,9 @@ public class JavaLoginTranslator extends PacketTranslator<ClientboundLoginPacket
 
         ChunkUtils.loadDimension(session);
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
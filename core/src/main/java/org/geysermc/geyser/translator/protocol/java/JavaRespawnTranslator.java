@@ -97,4 +97,9 @@ public class JavaRespawnTranslator extends PacketTranslator<ClientboundRespawnPa
             ChunkUtils.loadDimension(session);
         }
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
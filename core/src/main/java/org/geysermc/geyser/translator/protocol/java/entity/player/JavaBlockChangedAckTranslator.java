@@ -37,4 +37,9 @@ public class JavaBlockChangedAckTranslator extends PacketTranslator<ClientboundB
     public void translate(GeyserSession session, ClientboundBlockChangedAckPacket packet) {
         session.getWorldCache().endPredictionsUpTo(packet.getSequence());
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
+}
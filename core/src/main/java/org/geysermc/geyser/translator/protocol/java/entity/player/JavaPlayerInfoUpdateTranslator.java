@@ -36,6 +36,7 @@ import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.entity.type.player.PlayerEntity;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.skin.SkinManager;
+import org.geysermc.geyser.skin.SkinStreamer;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 import org.geysermc.geyser.translator.protocol.Translator;
 
@@ -104,6 +105,7 @@ public class JavaPlayerInfoUpdateTranslator extends PacketTranslator<Clientbound
         if (actions.contains(PlayerListEntryAction.UPDATE_LISTED)) {
             List<PlayerListPacket.Entry> toAdd = new ArrayList<>();
             List<PlayerListPacket.Entry> toRemove = new ArrayList<>();
+            SkinStreamer skinStreamer = session.getSkinStreamer();
 
             for (PlayerListEntry entry : packet.getEntries()) {
                 PlayerEntity entity = session.getEntityCache().getPlayerEntity(entry.getProfileId());
@@ -113,7 +115,8 @@ public class JavaPlayerInfoUpdateTranslator extends PacketTranslator<Clientbound
                 }
 
                 if (entry.isListed()) {
-                    PlayerListPacket.Entry playerListEntry = SkinManager.buildCachedEntry(session, entity);
+                    PlayerListPacket.Entry playerListEntry = skinStreamer != null ? skinStreamer.buildPlaceholderEntry(entity)
+                            : SkinManager.buildCachedEntry(session, entity);
                     toAdd.add(playerListEntry);
                 } else {
                     toRemove.add(new PlayerListPacket.Entry(entity.getTabListUuid()));
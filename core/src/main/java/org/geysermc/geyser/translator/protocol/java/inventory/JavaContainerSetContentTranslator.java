@@ -26,6 +26,8 @@
 package org.geysermc.geyser.translator.protocol.java.inventory;
 
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.inventory.ClientboundContainerSetContentPacket;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.inventory.GeyserItemStack;
 import org.geysermc.geyser.inventory.Inventory;
@@ -36,8 +38,12 @@ import org.geysermc.geyser.translator.protocol.PacketTranslator;
 import org.geysermc.geyser.translator.protocol.Translator;
 import org.geysermc.geyser.util.InventoryUtils;
 
+import java.util.concurrent.atomic.LongAdder;
+
 @Translator(packet = ClientboundContainerSetContentPacket.class)
 public class JavaContainerSetContentTranslator extends PacketTranslator<ClientboundContainerSetContentPacket> {
+    private static final LongAdder TRANSLATED_SLOTS = new LongAdder();
+    private static final LongAdder SKIPPED_SLOTS = new LongAdder();
 
     @Override
     public void translate(GeyserSession session, ClientboundContainerSetContentPacket packet) {
@@ -46,6 +52,8 @@ public class JavaContainerSetContentTranslator extends PacketTranslator<Clientbo
             return;
 
         int inventorySize = inventory.getSize();
+        double diffRatio = session.getGeyser().getConfig().getInventoryDiffRatio();
+        IntList changedSlots = diffRatio > 0 ? new IntArrayList() : null;
         for (int i = 0; i < packet.getItems().length; i++) {
             if (i >= inventorySize) {
                 GeyserImpl geyser = session.getGeyser();
@@ -63,10 +71,26 @@ public class JavaContainerSetContentTranslator extends PacketTranslator<Clientbo
             }
 
             GeyserItemStack newItem = GeyserItemStack.from(packet.getItems()[i]);
+            if (changedSlots != null) {
+                if (newItem.isSameStack(inventory.getItem(i))) {
+                    // Keep the old stack so the Bedrock client's net ID stays valid
+                    continue;
+                }
+                changedSlots.add(i);
+            }
             inventory.setItem(i, newItem, session);
         }
 
-        updateInventory(session, inventory, packet.getContainerId());
+        if (changedSlots != null && changedSlots.size() <= inventorySize * diffRatio) {
+            // Animated menus usually only change a few slots at a time
+            for (int i = 0; i < changedSlots.size(); i++) {
+                updateSlot(session, inventory, packet.getContainerId(), changedSlots.getInt(i));
+            }
+            TRANSLATED_SLOTS.add(changedSlots.size());
+            SKIPPED_SLOTS.add(inventorySize - changedSlots.size());
+        } else {
+            updateInventory(session, inventory, packet.getContainerId());
+        }
 
         int stateId = packet.getStateId();
         session.setEmulatePost1_16Logic(stateId > 0 || stateId != inventory.getStateId());
@@ -84,5 +108,29 @@ public class JavaContainerSetContentTranslator extends PacketTranslator<Clientbo
         } else if (translator != null) {
             translator.updateInventory(session, inventory);
         }
+        TRANSLATED_SLOTS.add(inventory.getSize());
+    }
+
+    private void updateSlot(GeyserSession session, Inventory inventory, int containerId, int slot) {
+        InventoryTranslator translator = session.getInventoryTranslator();
+        if (containerId == 0 && !(translator instanceof PlayerInventoryTranslator)) {
+            InventoryTranslator.PLAYER_INVENTORY_TRANSLATOR.updateSlot(session, inventory, slot);
+        } else if (translator != null) {
+            translator.updateSlot(session, inventory, slot);
+        }
+    }
+
+    /**
+     * @return how many slots were sent to Bedrock clients because of container content updates
+     */
+    public static long translatedSlots() {
+        return TRANSLATED_SLOTS.sum();
+    }
+
+    /**
+     * @return how many slots of container content updates were not sent because they did not change
+     */
+    public static long skippedSlots() {
+        return SKIPPED_SLOTS.sum();
     }
 }
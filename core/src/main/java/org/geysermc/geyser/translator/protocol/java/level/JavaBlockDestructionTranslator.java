@@ -65,4 +65,9 @@ public class JavaBlockDestructionTranslator extends PacketTranslator<Clientbound
         }
         session.sendUpstreamPacket(levelEventPacket);
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
@@ -96,4 +96,9 @@ public class JavaBlockEntityDataTranslator extends PacketTranslator<ClientboundB
             session.sendUpstreamPacket(openPacket);
         }
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
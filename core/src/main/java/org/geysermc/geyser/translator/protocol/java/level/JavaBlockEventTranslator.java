@@ -129,4 +129,9 @@ public class JavaBlockEventTranslator extends PacketTranslator<ClientboundBlockE
             session.sendUpstreamPacket(blockEntityPacket);
         }
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
@@ -104,4 +104,9 @@ public class JavaBlockUpdateTranslator extends PacketTranslator<ClientboundBlock
         session.setInteracting(false);
         BlockSoundInteractionTranslator.handleBlockInteraction(session, lastInteractPos.toFloat(), identifier);
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
@@ -41,4 +41,10 @@ public class JavaChunkBatchFinishedTranslator extends PacketTranslator<Clientbou
         // but currently we just send an arbitrary value. server clamps the value between 0.01 and 64.
         session.sendDownstreamGamePacket(new ServerboundChunkBatchReceivedPacket(20));
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        // Only acknowledge the batch once its chunks have been translated, so the server doesn't send chunks faster than we can translate them
+        return true;
+    }
 }
@@ -84,4 +84,9 @@ public class JavaExplodeTranslator extends PacketTranslator<ClientboundExplodePa
             session.sendUpstreamPacket(motionPacket);
         }
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
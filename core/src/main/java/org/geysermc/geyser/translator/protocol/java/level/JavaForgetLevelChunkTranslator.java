@@ -65,4 +65,9 @@ public class JavaForgetLevelChunkTranslator extends PacketTranslator<Clientbound
 
         ChunkUtils.sendEmptyChunk(session, packet.getX(), packet.getZ(), false);
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
@@ -57,10 +57,13 @@ import org.geysermc.erosion.util.LecternUtils;
 import org.geysermc.geyser.entity.type.ItemFrameEntity;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.block.BlockStateValues;
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
 import org.geysermc.geyser.level.chunk.BlockStorage;
 import org.geysermc.geyser.level.chunk.GeyserChunkSection;
+import org.geysermc.geyser.level.chunk.SharedChunkSectionCache;
 import org.geysermc.geyser.level.chunk.bitarray.BitArray;
 import org.geysermc.geyser.level.chunk.bitarray.BitArrayVersion;
+import org.geysermc.geyser.level.chunk.bitarray.SectionTranscoder;
 import org.geysermc.geyser.level.chunk.bitarray.SingletonBitArray;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.session.GeyserSession;
@@ -85,305 +88,362 @@ import static org.geysermc.geyser.util.ChunkUtils.indexYZXtoXZY;
 @Translator(packet = ClientboundLevelChunkWithLightPacket.class)
 public class JavaLevelChunkWithLightTranslator extends PacketTranslator<ClientboundLevelChunkWithLightPacket> {
     private static final ThreadLocal<ExtendedCollisionsStorage> EXTENDED_COLLISIONS_STORAGE = ThreadLocal.withInitial(ExtendedCollisionsStorage::new);
+    /**
+     * Scratch space for the unpacked Java palette IDs of one section
+     */
+    private static final ThreadLocal<int[]> PALETTE_IDS = ThreadLocal.withInitial(() -> new int[BlockStorage.SIZE]);
 
     @Override
     public void translate(GeyserSession session, ClientboundLevelChunkWithLightPacket packet) {
-        final boolean useExtendedCollisions = !session.getBlockMappings().getExtendedCollisionBoxes().isEmpty();
-
         if (session.isSpawned()) {
             ChunkUtils.updateChunkPosition(session, session.getPlayerEntity().getPosition().toInt());
         }
 
+        ChunkTranslationPipeline pipeline = session.getChunkTranslationPipeline();
+        if (pipeline != null && pipeline.hasPendingTasks()) {
+            // A dimension change may still be waiting for earlier chunks, and this chunk must be sized for
+            // the dimension it is sent in
+            pipeline.reserve(() -> translateChunk(session, packet, pipeline));
+        } else {
+            translateChunk(session, packet, pipeline);
+        }
+    }
+
+    private void translateChunk(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, ChunkTranslationPipeline pipeline) {
         // Ensure that, if the player is using lower world heights, the position is not offset
         int yOffset = session.getChunkCache().getChunkMinY();
         int chunkSize = session.getChunkCache().getChunkHeightY();
+        BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
+
+        if (pipeline != null) {
+            // Translate the sections off of the event loop; the chunk is sent in order once that is done
+            pipeline.submit(ClientboundLevelChunkWithLightPacket.class, () -> translateSections(session, packet, yOffset, chunkSize, bedrockDimension),
+                    translatedChunk -> sendChunk(session, packet, translatedChunk),
+                    () -> retryChunk(session, packet, yOffset, chunkSize, bedrockDimension));
+        } else {
+            sendChunk(session, packet, translateSections(session, packet, yOffset, chunkSize, bedrockDimension));
+        }
+    }
+
+    /**
+     * Translates a chunk on the event loop after translating it on a worker thread failed. If that fails as well,
+     * an empty chunk is sent, so the client is not left with a hole in the world.
+     */
+    private void retryChunk(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, int yOffset, int chunkSize,
+                            BedrockDimension bedrockDimension) {
+        TranslatedChunk translatedChunk;
+        try {
+            translatedChunk = translateSections(session, packet, yOffset, chunkSize, bedrockDimension);
+        } catch (Throwable t) {
+            session.getGeyser().getLogger().error("Error translating chunk " + packet.getX() + ", " + packet.getZ() + "; sending an empty chunk instead", t);
+            ChunkUtils.sendEmptyChunk(session, packet.getX(), packet.getZ(), false);
+            return;
+        }
+        sendChunk(session, packet, translatedChunk);
+    }
+
+    /**
+     * Translates the block data of every chunk section. This does not touch any session state other than the block mappings,
+     * and so may be called outside the session's event loop.
+     */
+    private TranslatedChunk translateSections(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, int yOffset,
+                                              int chunkSize, BedrockDimension bedrockDimension) {
+        final boolean useExtendedCollisions = !session.getBlockMappings().getExtendedCollisionBoxes().isEmpty();
         int biomeGlobalPalette = session.getBiomeGlobalPalette();
 
         DataPalette[] javaChunks = new DataPalette[chunkSize];
         DataPalette[] javaBiomes = new DataPalette[chunkSize];
 
-        final BlockEntityInfo[] blockEntities = packet.getBlockEntities();
-        final List<NbtMap> bedrockBlockEntities = new ObjectArrayList<>(blockEntities.length);
-        final List<BlockEntityInfo> lecterns = new ObjectArrayList<>();
+        final List<NbtMap> bedrockBlockEntities = new ObjectArrayList<>(packet.getBlockEntities().length);
 
         BitSet waterloggedPaletteIds = new BitSet();
         BitSet bedrockOnlyBlockEntityIds = new BitSet();
+        BitSet extendedCollisionPaletteIds = new BitSet();
+        // Sections that are also held in the shared section cache, and therefore must be copied before modification
+        BitSet sharedSections = new BitSet();
+        final boolean useSharedCache = SharedChunkSectionCache.isEnabled();
+        final int protocolVersion = session.getUpstream().getProtocolVersion();
 
-        BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
         int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
 
-        int sectionCount;
-        byte[] payload;
-        ByteBuf byteBuf = null;
         GeyserChunkSection[] sections = new GeyserChunkSection[javaChunks.length - (yOffset + (bedrockDimension.minY() >> 4))];
 
-        try {
-            ByteBuf in = Unpooled.wrappedBuffer(packet.getChunkData());
-            boolean extendedCollisionNextSection = false;
-            for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
-                ChunkSection javaSection = session.getDownstream().getCodecHelper().readChunkSection(in, biomeGlobalPalette);
-                javaChunks[sectionY] = javaSection.getChunkData();
-                javaBiomes[sectionY] = javaSection.getBiomeData();
-                boolean extendedCollision = extendedCollisionNextSection;
-                boolean thisExtendedCollisionNextSection = false;
-
-                int bedrockSectionY = sectionY + (yOffset - (bedrockDimension.minY() >> 4));
-                int subChunkIndex = sectionY + yOffset;
-                if (bedrockSectionY < 0 || maxBedrockSectionY < bedrockSectionY) {
-                    // Ignore this chunk section since it goes outside the bounds accepted by the Bedrock client
-                    if (useExtendedCollisions) {
-                        EXTENDED_COLLISIONS_STORAGE.get().clear();
-                    }
-                    extendedCollisionNextSection = false;
-                    continue;
-                }
-
-                // No need to encode an empty section...
-                if (javaSection.isBlockCountEmpty()) {
-                    // Unless we need to send extended collisions
-                    if (useExtendedCollisions) {
-                        if (extendedCollision) {
-                            int blocks = EXTENDED_COLLISIONS_STORAGE.get().bottomLayerCollisions() + 1;
-                            BitArray bedrockData = BitArrayVersion.forBitsCeil(Integer.SIZE - Integer.numberOfLeadingZeros(blocks)).createArray(BlockStorage.SIZE);
-                            BlockStorage layer0 = new BlockStorage(bedrockData, new IntArrayList(blocks));
-    
-                            layer0.idFor(session.getBlockMappings().getBedrockAir().getRuntimeId());
-                            for (int yzx = 0; yzx < BlockStorage.SIZE / 16; yzx++) {
-                                if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                                    bedrockData.set(indexYZXtoXZY(yzx), layer0.idFor(EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY)));
-                                    EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                                }
-                            }
-    
-                            BlockStorage[] layers = new BlockStorage[]{ layer0 };
-                            sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
-                        }
-                        EXTENDED_COLLISIONS_STORAGE.get().clear();
-                        extendedCollisionNextSection = false;
-                    }
-                    continue;
+        ByteBuf in = Unpooled.wrappedBuffer(packet.getChunkData());
+        boolean extendedCollisionNextSection = false;
+        for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
+            int sectionStart = in.readerIndex();
+            ChunkSection javaSection = session.getDownstream().getCodecHelper().readChunkSection(in, biomeGlobalPalette);
+            javaChunks[sectionY] = javaSection.getChunkData();
+            javaBiomes[sectionY] = javaSection.getBiomeData();
+            boolean extendedCollision = extendedCollisionNextSection;
+            boolean thisExtendedCollisionNextSection = false;
+
+            int bedrockSectionY = sectionY + (yOffset - (bedrockDimension.minY() >> 4));
+            int subChunkIndex = sectionY + yOffset;
+            if (bedrockSectionY < 0 || maxBedrockSectionY < bedrockSectionY) {
+                // Ignore this chunk section since it goes outside the bounds accepted by the Bedrock client
+                if (useExtendedCollisions) {
+                    EXTENDED_COLLISIONS_STORAGE.get().clear();
                 }
+                extendedCollisionNextSection = false;
+                continue;
+            }
 
-                Palette javaPalette = javaSection.getChunkData().getPalette();
-                BitStorage javaData = javaSection.getChunkData().getStorage();
-
-                if (javaPalette instanceof GlobalPalette) {
-                    // As this is the global palette, simply iterate through the whole chunk section once
-                    GeyserChunkSection section = new GeyserChunkSection(session.getBlockMappings().getBedrockAir().getRuntimeId(), subChunkIndex);
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int javaId = javaData.get(yzx);
-                        int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
-                        int xzy = indexYZXtoXZY(yzx);
-                        section.getBlockStorageArray()[0].setFullBlock(xzy, bedrockId);
-
-                        if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
-                            section.getBlockStorageArray()[1].setFullBlock(xzy, session.getBlockMappings().getBedrockWater().getRuntimeId());
-                        }
+            // No need to encode an empty section...
+            if (javaSection.isBlockCountEmpty()) {
+                // Unless we need to send extended collisions
+                if (useExtendedCollisions) {
+                    if (extendedCollision) {
+                        int blocks = EXTENDED_COLLISIONS_STORAGE.get().bottomLayerCollisions() + 1;
+                        BitArray bedrockData = BitArrayVersion.forBitsCeil(Integer.SIZE - Integer.numberOfLeadingZeros(blocks)).createArray(BlockStorage.SIZE);
+                        BlockStorage layer0 = new BlockStorage(bedrockData, new IntArrayList(blocks));
 
-                        // Extended collision blocks
-                        if (useExtendedCollisions) {
+                        layer0.idFor(session.getBlockMappings().getBedrockAir().getRuntimeId());
+                        for (int yzx = 0; yzx < BlockStorage.SIZE / 16; yzx++) {
                             if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                                if (javaId == BlockStateValues.JAVA_AIR_ID) {
-                                    section.getBlockStorageArray()[0].setFullBlock(xzy, EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY));
-                                }
+                                bedrockData.set(indexYZXtoXZY(yzx), layer0.idFor(EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY)));
                                 EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                                continue;
-                            }
-                            BlockDefinition aboveBedrockExtendedCollisionDefinition = session.getBlockMappings().getExtendedCollisionBoxes().get(javaId);
-                            if (aboveBedrockExtendedCollisionDefinition != null) {
-                                EXTENDED_COLLISIONS_STORAGE.get().set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
-                                if ((xzy & 0xF) == 15) {
-                                    thisExtendedCollisionNextSection = true;
-                                }
                             }
                         }
 
-                        // Check if block is piston or flower to see if we'll need to create additional block entities, as they're only block entities in Bedrock
-                        if (BlockStateValues.getFlowerPotValues().containsKey(javaId) || BlockStateValues.getPistonValues().containsKey(javaId) || BlockStateValues.isNonWaterCauldron(javaId)) {
-                            bedrockBlockEntities.add(BedrockOnlyBlockEntity.getTag(session,
-                                    Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
-                                    javaId
-                            ));
-                        }
+                        BlockStorage[] layers = new BlockStorage[]{ layer0 };
+                        sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
                     }
-                    sections[bedrockSectionY] = section;
-                    extendedCollisionNextSection = thisExtendedCollisionNextSection;
-                    continue;
+                    EXTENDED_COLLISIONS_STORAGE.get().clear();
+                    extendedCollisionNextSection = false;
                 }
+                continue;
+            }
 
-                if (javaPalette instanceof SingletonPalette) {
-                    // There's only one block here. Very easy!
-                    int javaId = javaPalette.idToState(0);
-                    int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
-                    BlockStorage blockStorage = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(bedrockId));
-
-                    if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
-                        BlockStorage waterlogged = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(session.getBlockMappings().getBedrockWater().getRuntimeId()));
-                        sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage, waterlogged}, subChunkIndex);
-                    } else {
-                        sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage}, subChunkIndex);
-                    }
-                    if (useExtendedCollisions) {
-                        EXTENDED_COLLISIONS_STORAGE.get().clear();
-                        extendedCollisionNextSection = false;
-                    }
-                    // If a chunk contains all of the same piston or flower pot then god help us
+            Palette javaPalette = javaSection.getChunkData().getPalette();
+            BitStorage javaData = javaSection.getChunkData().getStorage();
+
+            // Sections with incoming extended collisions depend on the section below them, so they cannot be shared.
+            // The global palette path also reads the extended collision storage unconditionally.
+            SharedChunkSectionCache.Key cacheKey = null;
+            if (useSharedCache && !extendedCollision && !(javaPalette instanceof SingletonPalette)
+                    && !(useExtendedCollisions && javaPalette instanceof GlobalPalette)) {
+                cacheKey = SharedChunkSectionCache.createKey(protocolVersion, useExtendedCollisions, in, sectionStart, in.readerIndex() - sectionStart);
+                BlockStorage[] cachedLayers = SharedChunkSectionCache.get(cacheKey);
+                if (cachedLayers != null) {
+                    sections[bedrockSectionY] = new GeyserChunkSection(cachedLayers, subChunkIndex);
+                    sharedSections.set(bedrockSectionY);
+                    extendedCollisionNextSection = false;
                     continue;
                 }
+            }
 
-                IntList bedrockPalette = new IntArrayList(javaPalette.size());
-                int airPaletteId = -1;
-                waterloggedPaletteIds.clear();
-                bedrockOnlyBlockEntityIds.clear();
-
-                // Iterate through palette and convert state IDs to Bedrock, doing some additional checks as we go
-                int extendedCollisionsInPalette = 0;
-                for (int i = 0; i < javaPalette.size(); i++) {
-                    int javaId = javaPalette.idToState(i);
-                    bedrockPalette.add(session.getBlockMappings().getBedrockBlockId(javaId));
+            if (javaPalette instanceof GlobalPalette) {
+                int blockEntityCount = bedrockBlockEntities.size();
+                // As this is the global palette, simply iterate through the whole chunk section once
+                GeyserChunkSection section = new GeyserChunkSection(session.getBlockMappings().getBedrockAir().getRuntimeId(), subChunkIndex);
+                int[] javaIds = PALETTE_IDS.get();
+                SectionTranscoder.unpack(javaData.getData(), javaData.getBitsPerEntry(), javaIds);
+                for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                    int javaId = javaIds[yzx];
+                    int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
+                    int xzy = indexYZXtoXZY(yzx);
+                    section.getBlockStorageArray()[0].setFullBlock(xzy, bedrockId);
 
                     if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
-                        waterloggedPaletteIds.set(i);
-                    }
-
-                    if (javaId == BlockStateValues.JAVA_AIR_ID) {
-                        airPaletteId = i;
+                        section.getBlockStorageArray()[1].setFullBlock(xzy, session.getBlockMappings().getBedrockWater().getRuntimeId());
                     }
 
+                    // Extended collision blocks
                     if (useExtendedCollisions) {
-                        if (session.getBlockMappings().getExtendedCollisionBoxes().get(javaId) != null) {
-                            extendedCollision = true;
-                            extendedCollisionsInPalette++;
+                        if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
+                            if (javaId == BlockStateValues.JAVA_AIR_ID) {
+                                section.getBlockStorageArray()[0].setFullBlock(xzy, EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY));
+                            }
+                            EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
+                            continue;
+                        }
+                        BlockDefinition aboveBedrockExtendedCollisionDefinition = session.getBlockMappings().getExtendedCollisionBoxes().get(javaId);
+                        if (aboveBedrockExtendedCollisionDefinition != null) {
+                            EXTENDED_COLLISIONS_STORAGE.get().set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
+                            if ((xzy & 0xF) == 15) {
+                                thisExtendedCollisionNextSection = true;
+                            }
                         }
                     }
 
-                    // Check if block is piston, flower or cauldron to see if we'll need to create additional block entities, as they're only block entities in Bedrock
+                    // Check if block is piston or flower to see if we'll need to create additional block entities, as they're only block entities in Bedrock
                     if (BlockStateValues.getFlowerPotValues().containsKey(javaId) || BlockStateValues.getPistonValues().containsKey(javaId) || BlockStateValues.isNonWaterCauldron(javaId)) {
-                        bedrockOnlyBlockEntityIds.set(i);
+                        bedrockBlockEntities.add(BedrockOnlyBlockEntity.getTag(session,
+                                Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
+                                javaId
+                        ));
                     }
                 }
+                sections[bedrockSectionY] = section;
+                extendedCollisionNextSection = thisExtendedCollisionNextSection;
 
-                // Add Bedrock-exclusive block entities
-                // We only if the palette contained any blocks that are Bedrock-exclusive block entities to avoid iterating through the whole block data
-                // for no reason, as most sections will not contain any pistons or flower pots
-                if (!bedrockOnlyBlockEntityIds.isEmpty()) {
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        if (bedrockOnlyBlockEntityIds.get(paletteId)) {
-                            bedrockBlockEntities.add(BedrockOnlyBlockEntity.getTag(session,
-                                    Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
-                                    javaPalette.idToState(paletteId)
-                            ));
-                        }
-                    }
+                if (cacheKey != null && bedrockBlockEntities.size() == blockEntityCount) {
+                    SharedChunkSectionCache.put(cacheKey, section.getBlockStorageArray());
+                    sharedSections.set(bedrockSectionY);
                 }
+                continue;
+            }
 
-                // We need to ensure we use enough bits to represent extended collision blocks in the chunk section
-                int sectionCollisionBlocks = 0;
+            if (javaPalette instanceof SingletonPalette) {
+                // There's only one block here. Very easy!
+                int javaId = javaPalette.idToState(0);
+                int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
+                BlockStorage blockStorage = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(bedrockId));
+
+                if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
+                    BlockStorage waterlogged = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(session.getBlockMappings().getBedrockWater().getRuntimeId()));
+                    sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage, waterlogged}, subChunkIndex);
+                } else {
+                    sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage}, subChunkIndex);
+                }
                 if (useExtendedCollisions) {
-                    int bottomLayerCollisions = extendedCollision ? EXTENDED_COLLISIONS_STORAGE.get().bottomLayerCollisions() : 0;
-                    sectionCollisionBlocks = bottomLayerCollisions + extendedCollisionsInPalette;
+                    EXTENDED_COLLISIONS_STORAGE.get().clear();
+                    extendedCollisionNextSection = false;
                 }
-                int bedrockDataBits = Integer.SIZE - Integer.numberOfLeadingZeros(javaPalette.size() + sectionCollisionBlocks);
-                BitArray bedrockData = BitArrayVersion.forBitsCeil(bedrockDataBits).createArray(BlockStorage.SIZE);
-                BlockStorage layer0 = new BlockStorage(bedrockData, bedrockPalette);
-                BlockStorage[] layers;
-
-                // Convert data array from YZX to XZY coordinate order
-                if (waterloggedPaletteIds.isEmpty() && !extendedCollision) {
-                    // No blocks are waterlogged, simply convert coordinate order
-                    // This could probably be optimized further...
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-                    }
+                // If a chunk contains all of the same piston or flower pot then god help us
+                continue;
+            }
 
-                    layers = new BlockStorage[]{ layer0 };
-                } else if (!waterloggedPaletteIds.isEmpty() && !extendedCollision) {
-                    // The section contains waterlogged blocks, we need to convert coordinate order AND generate a V1 block storage for
-                    // layer 1 with palette ID 1 indicating water
-                    int[] layer1Data = new int[BlockStorage.SIZE >> 5];
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-
-                        if (waterloggedPaletteIds.get(paletteId)) {
-                            layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
-                        }
-                    }
-                    
-                    // V1 palette
-                    IntList layer1Palette = IntList.of(
-                            session.getBlockMappings().getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
-                            session.getBlockMappings().getBedrockWater().getRuntimeId());
-
-                    layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
-                } else if (waterloggedPaletteIds.isEmpty() && extendedCollision) {
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
+            IntList bedrockPalette = new IntArrayList(javaPalette.size());
+            int airPaletteId = -1;
+            waterloggedPaletteIds.clear();
+            bedrockOnlyBlockEntityIds.clear();
+            extendedCollisionPaletteIds.clear();
 
-                        if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                            if (paletteId == airPaletteId) {
-                                bedrockData.set(xzy, layer0.idFor(EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY)));
-                            }
-                            EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                            continue;
-                        }
-                        BlockDefinition aboveBedrockExtendedCollisionDefinition = session.getBlockMappings()
-                                .getExtendedCollisionBoxes().get(javaPalette.idToState(paletteId));
-                        if (aboveBedrockExtendedCollisionDefinition != null) {
-                            EXTENDED_COLLISIONS_STORAGE.get().set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
-                            if ((xzy & 0xF) == 15) {
-                                thisExtendedCollisionNextSection = true;
-                            }
-                        }
+            // Iterate through palette and convert state IDs to Bedrock, doing some additional checks as we go
+            int extendedCollisionsInPalette = 0;
+            for (int i = 0; i < javaPalette.size(); i++) {
+                int javaId = javaPalette.idToState(i);
+                bedrockPalette.add(session.getBlockMappings().getBedrockBlockId(javaId));
+
+                if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
+                    waterloggedPaletteIds.set(i);
+                }
+
+                if (javaId == BlockStateValues.JAVA_AIR_ID) {
+                    airPaletteId = i;
+                }
+
+                if (useExtendedCollisions) {
+                    if (session.getBlockMappings().getExtendedCollisionBoxes().get(javaId) != null) {
+                        extendedCollision = true;
+                        extendedCollisionsInPalette++;
+                        extendedCollisionPaletteIds.set(i);
                     }
+                }
 
-                    layers = new BlockStorage[]{ layer0 };
-                } else {
-                    int[] layer1Data = new int[BlockStorage.SIZE >> 5];
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-
-                        if (waterloggedPaletteIds.get(paletteId)) {
-                            layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
-                        }
+                // Check if block is piston, flower or cauldron to see if we'll need to create additional block entities, as they're only block entities in Bedrock
+                if (BlockStateValues.getFlowerPotValues().containsKey(javaId) || BlockStateValues.getPistonValues().containsKey(javaId) || BlockStateValues.isNonWaterCauldron(javaId)) {
+                    bedrockOnlyBlockEntityIds.set(i);
+                }
+            }
 
-                        if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                            if (paletteId == airPaletteId) {
-                                bedrockData.set(xzy, layer0.idFor(EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY)));
-                            }
-                            EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                            continue;
+            // Unpack the Java data once, rather than going through the bit storage for every block
+            int[] paletteIds = PALETTE_IDS.get();
+            SectionTranscoder.unpack(javaData.getData(), javaData.getBitsPerEntry(), paletteIds);
+
+            // Add Bedrock-exclusive block entities
+            // We only if the palette contained any blocks that are Bedrock-exclusive block entities to avoid iterating through the whole block data
+            // for no reason, as most sections will not contain any pistons or flower pots
+            if (!bedrockOnlyBlockEntityIds.isEmpty()) {
+                for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                    int paletteId = paletteIds[yzx];
+                    if (bedrockOnlyBlockEntityIds.get(paletteId)) {
+                        bedrockBlockEntities.add(BedrockOnlyBlockEntity.getTag(session,
+                                Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
+                                javaPalette.idToState(paletteId)
+                        ));
+                    }
+                }
+            }
+
+            // We need to ensure we use enough bits to represent extended collision blocks in the chunk section
+            int sectionCollisionBlocks = 0;
+            if (useExtendedCollisions) {
+                int bottomLayerCollisions = extendedCollision ? EXTENDED_COLLISIONS_STORAGE.get().bottomLayerCollisions() : 0;
+                sectionCollisionBlocks = bottomLayerCollisions + extendedCollisionsInPalette;
+            }
+            int bedrockDataBits = Integer.SIZE - Integer.numberOfLeadingZeros(javaPalette.size() + sectionCollisionBlocks);
+            BitArray bedrockData = BitArrayVersion.forBitsCeil(bedrockDataBits).createArray(BlockStorage.SIZE);
+            BlockStorage layer0 = new BlockStorage(bedrockData, bedrockPalette);
+            BlockStorage[] layers;
+
+            // Convert data array from YZX to XZY coordinate order. If the section contains waterlogged blocks, this also
+            // generates a V1 block storage for layer 1 with palette ID 1 indicating water
+            int[] layer1Data = waterloggedPaletteIds.isEmpty() ? null : new int[BlockStorage.SIZE >> 5];
+            long[] extendedCollisionMask = extendedCollision ? new long[BlockStorage.SIZE >> 6] : null;
+            SectionTranscoder.transcode(paletteIds, bedrockData, waterloggedPaletteIds, layer1Data, extendedCollisionPaletteIds, extendedCollisionMask);
+
+            if (extendedCollision) {
+                ExtendedCollisionsStorage extendedCollisions = EXTENDED_COLLISIONS_STORAGE.get();
+                for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                    int collisionRuntimeId = extendedCollisions.get(yzx, sectionY);
+                    if (collisionRuntimeId != 0) {
+                        if (paletteIds[yzx] == airPaletteId) {
+                            bedrockData.set(indexYZXtoXZY(yzx), layer0.idFor(collisionRuntimeId));
                         }
+                        extendedCollisions.set(yzx, 0, sectionY);
+                        continue;
+                    }
+                    if ((extendedCollisionMask[yzx >> 6] & (1L << (yzx & 0x3F))) != 0) {
                         BlockDefinition aboveBedrockExtendedCollisionDefinition = session.getBlockMappings().getExtendedCollisionBoxes()
-                                .get(javaPalette.idToState(paletteId));
-                        if (aboveBedrockExtendedCollisionDefinition != null) {
-                            EXTENDED_COLLISIONS_STORAGE.get().set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
-                            if ((xzy & 0xF) == 15) {
-                                thisExtendedCollisionNextSection = true;
-                            }
+                                .get(javaPalette.idToState(paletteIds[yzx]));
+                        extendedCollisions.set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
+                        if ((yzx >> 8) == 15) {
+                            thisExtendedCollisionNextSection = true;
                         }
                     }
+                }
+            }
 
-                    // V1 palette
-                    IntList layer1Palette = IntList.of(
-                            session.getBlockMappings().getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
-                            session.getBlockMappings().getBedrockWater().getRuntimeId());
+            if (layer1Data == null) {
+                layers = new BlockStorage[]{ layer0 };
+            } else {
+                // V1 palette
+                IntList layer1Palette = IntList.of(
+                        session.getBlockMappings().getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
+                        session.getBlockMappings().getBedrockWater().getRuntimeId());
 
-                    layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
-                }
+                layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
+            }
 
-                sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
-                extendedCollisionNextSection = thisExtendedCollisionNextSection;
+            sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
+            extendedCollisionNextSection = thisExtendedCollisionNextSection;
+
+            // Extended collisions in this section's palette, or Bedrock-only block entities, are side effects
+            // that a cached section would not reproduce
+            if (cacheKey != null && !extendedCollision && bedrockOnlyBlockEntityIds.isEmpty()) {
+                SharedChunkSectionCache.put(cacheKey, layers);
+                sharedSections.set(bedrockSectionY);
             }
+        }
+
+        return new TranslatedChunk(javaChunks, javaBiomes, sections, sharedSections, bedrockBlockEntities, yOffset, chunkSize, bedrockDimension);
+    }
 
+    /**
+     * Updates the session with a translated chunk, and sends it to the client. Must be called in the session's event loop.
+     */
+    private void sendChunk(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, TranslatedChunk translatedChunk) {
+        final DataPalette[] javaChunks = translatedChunk.javaChunks();
+        final DataPalette[] javaBiomes = translatedChunk.javaBiomes();
+        final GeyserChunkSection[] sections = translatedChunk.sections();
+        final BitSet sharedSections = translatedChunk.sharedSections();
+        final int yOffset = translatedChunk.yOffset();
+        final int chunkSize = translatedChunk.chunkSize();
+        final BedrockDimension bedrockDimension = translatedChunk.bedrockDimension();
+        int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
+
+        final BlockEntityInfo[] blockEntities = packet.getBlockEntities();
+        final List<NbtMap> bedrockBlockEntities = translatedChunk.bedrockBlockEntities();
+        final List<BlockEntityInfo> lecterns = new ObjectArrayList<>();
+
+        int sectionCount;
+        byte[] payload;
+        ByteBuf byteBuf = null;
+
+        try {
             if (!session.getErosionHandler().isActive()) {
                 session.getChunkCache().addToCache(packet.getX(), packet.getZ(), javaChunks);
             }
@@ -433,10 +493,11 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                             // Custom skull is in a section accepted by Bedrock
                             GeyserChunkSection bedrockSection = sections[bedrockSectionY];
                             IntList palette = bedrockSection.getBlockStorageArray()[0].getPalette();
-                            if (palette instanceof IntImmutableList || palette instanceof IntLists.Singleton) {
+                            if (palette instanceof IntImmutableList || palette instanceof IntLists.Singleton || sharedSections.get(bedrockSectionY)) {
                                 // TODO there has to be a better way to expand the palette .-.
                                 bedrockSection = bedrockSection.copy(subChunkIndex);
                                 sections[bedrockSectionY] = bedrockSection;
+                                sharedSections.clear(bedrockSectionY);
                             }
                             bedrockSection.setFullBlock(x, y & 0xF, z, 0, blockDefinition.getRuntimeId());
                         }
@@ -538,6 +599,10 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
         }
     }
 
+    private record TranslatedChunk(DataPalette[] javaChunks, DataPalette[] javaBiomes, GeyserChunkSection[] sections, BitSet sharedSections,
+                                   List<NbtMap> bedrockBlockEntities, int yOffset, int chunkSize, BedrockDimension bedrockDimension) {
+    }
+
     static final class ExtendedCollisionsStorage {
         private int[] data;
         private int sectionY;
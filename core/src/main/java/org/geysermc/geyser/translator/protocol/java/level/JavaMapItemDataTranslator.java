@@ -33,6 +33,7 @@ import org.cloudburstmc.protocol.bedrock.data.MapDecoration;
 import org.cloudburstmc.protocol.bedrock.data.MapTrackedObject;
 import org.geysermc.geyser.level.BedrockMapIcon;
 import org.geysermc.geyser.level.MapColor;
+import org.geysermc.geyser.level.MapImageCache;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 import org.geysermc.geyser.translator.protocol.Translator;
@@ -61,17 +62,15 @@ public class JavaMapItemDataTranslator extends PacketTranslator<ClientboundMapIt
             mapItemDataPacket.setWidth(data.getColumns());
             mapItemDataPacket.setHeight(data.getRows());
 
+            // Every int entry is an ARGB color
+            int[] colors;
             // We have a full map image, this usually only happens on spawn for the initial image
             if (mapItemDataPacket.getWidth() == 128 && mapItemDataPacket.getHeight() == 128) {
                 shouldStore = true;
-            }
-
-            // Every int entry is an ARGB color
-            int[] colors = new int[data.getData().length];
-
-            int idx = 0;
-            for (byte colorId : data.getData()) {
-                colors[idx++] = MapColor.fromId(colorId & 0xFF).getARGB();
+                colors = MapImageCache.toARGB(data.getData());
+            } else {
+                colors = MapColor.toARGB(data.getData());
+                patchStoredMap(session, packet.getMapId(), data, colors);
             }
 
             mapItemDataPacket.setColors(colors);
@@ -95,4 +94,27 @@ public class JavaMapItemDataTranslator extends PacketTranslator<ClientboundMapIt
         // Send anyway just in case
         session.sendUpstreamPacket(mapItemDataPacket);
     }
+
+    /**
+     * Applies a partial update to the full image that is waiting for the client to request it, so the client does
+     * not receive an outdated image.
+     */
+    private static void patchStoredMap(GeyserSession session, long mapId, MapData data, int[] colors) {
+        org.cloudburstmc.protocol.bedrock.packet.ClientboundMapItemDataPacket storedMap = session.getStoredMaps().get(mapId);
+        if (storedMap == null || storedMap.getColors() == null) {
+            return;
+        }
+        int width = storedMap.getWidth();
+        if (data.getX() < 0 || data.getY() < 0 || data.getX() + data.getColumns() > width
+                || data.getY() + data.getRows() > storedMap.getHeight()) {
+            return;
+        }
+
+        // The stored image may be shared with other sessions
+        int[] patched = storedMap.getColors().clone();
+        for (int row = 0; row < data.getRows(); row++) {
+            System.arraycopy(colors, row * data.getColumns(), patched, (data.getY() + row) * width + data.getX(), data.getColumns());
+        }
+        storedMap.setColors(patched);
+    }
 }
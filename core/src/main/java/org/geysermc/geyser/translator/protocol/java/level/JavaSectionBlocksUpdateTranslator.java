@@ -36,8 +36,19 @@ public class JavaSectionBlocksUpdateTranslator extends PacketTranslator<Clientbo
 
     @Override
     public void translate(GeyserSession session, ClientboundSectionBlocksUpdatePacket packet) {
+        int bulkThreshold = session.getGeyser().getConfig().getBulkBlockUpdateThreshold();
+        if (bulkThreshold > 0 && packet.getEntries().length >= bulkThreshold) {
+            session.getWorldCache().updateServerCorrectBlockStates(packet.getChunkX(), packet.getChunkY(), packet.getChunkZ(), packet.getEntries());
+            return;
+        }
+
         for (BlockChangeEntry entry : packet.getEntries()) {
             session.getWorldCache().updateServerCorrectBlockState(entry.getPosition(), entry.getBlock());
         }
     }
+
+    @Override
+    public boolean isOrderedWithChunks() {
+        return true;
+    }
 }
@@ -148,6 +148,15 @@ public class MessageTranslator {
      * @return Parsed and formatted message for bedrock
      */
     public static String convertMessage(Component message, String locale) {
+        String rendered = RenderedMessageCache.get(message, locale, false);
+        if (rendered == null) {
+            rendered = render(message, locale);
+            RenderedMessageCache.put(message, locale, false, rendered);
+        }
+        return rendered;
+    }
+
+    private static String render(Component message, String locale) {
         try {
             // Translate any components that require it
             message = RENDERER.render(message, locale);
@@ -188,7 +197,12 @@ public class MessageTranslator {
     }
 
     public static String convertJsonMessage(String message, String locale) {
-        return convertMessage(GSON_SERIALIZER.deserialize(message), locale);
+        String rendered = RenderedMessageCache.get(message, locale, false);
+        if (rendered == null) {
+            rendered = render(GSON_SERIALIZER.deserialize(message), locale);
+            RenderedMessageCache.put(message, locale, false, rendered);
+        }
+        return rendered;
     }
 
     public static String convertJsonMessage(String message) {
@@ -215,19 +229,25 @@ public class MessageTranslator {
             return message;
         }
 
+        String convertedMessage = RenderedMessageCache.get(message, locale, true);
+        if (convertedMessage != null) {
+            return convertedMessage;
+        }
+
         try {
-            return convertJsonMessage(message, locale);
+            convertedMessage = render(GSON_SERIALIZER.deserialize(message), locale);
         } catch (Exception ignored) {
             // Use the default legacy serializer since message is java-legacy
-            String convertedMessage = convertMessage(LegacyComponentSerializer.legacySection().deserialize(message), locale);
+            convertedMessage = render(LegacyComponentSerializer.legacySection().deserialize(message), locale);
 
             // We have to do this since Adventure strips the starting reset character
             if (message.startsWith(RESET) && !convertedMessage.startsWith(RESET)) {
                 convertedMessage = RESET + convertedMessage;
             }
-
-            return convertedMessage;
         }
+
+        RenderedMessageCache.put(message, locale, true, convertedMessage);
+        return convertedMessage;
     }
 
     public static String convertMessageLenient(String message) {
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.translator.text;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.text.MinecraftLocale;
+
+/**
+ * A size-bounded cache of messages converted to Bedrock's format, shared between all sessions.
+ * <p>
+ * When a message is broadcast to many players, it only has to be rendered once for every locale in use instead of
+ * once per player. Messages are keyed by their component or, for JSON messages, by the JSON itself.
+ */
+public final class RenderedMessageCache {
+    private static Cache<Key, String> CACHE = null;
+
+    /**
+     * (Re)initializes the cache.
+     *
+     * @param maximumSize the maximum amount of rendered messages to hold, or 0 to disable the cache
+     */
+    public static void init(int maximumSize) {
+        if (maximumSize <= 0) {
+            CACHE = null;
+            return;
+        }
+        CACHE = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public static boolean isEnabled() {
+        return CACHE != null;
+    }
+
+    /**
+     * @param message the component or JSON string that was converted
+     * @param lenient whether the message is a JSON string that was converted leniently
+     */
+    static @Nullable String get(Object message, String locale, boolean lenient) {
+        Cache<Key, String> cache = CACHE;
+        return cache == null ? null : cache.getIfPresent(new Key(message, locale, lenient));
+    }
+
+    static void put(Object message, String locale, boolean lenient, String rendered) {
+        Cache<Key, String> cache = CACHE;
+        // Messages rendered before their locale finished loading use fallback translations
+        if (cache != null && MinecraftLocale.isLocaleLoaded(locale)) {
+            cache.put(new Key(message, locale, lenient), rendered);
+        }
+    }
+
+    public static long size() {
+        Cache<Key, String> cache = CACHE;
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of this cache, or null if the cache is disabled
+     */
+    public static @Nullable CacheStats stats() {
+        Cache<Key, String> cache = CACHE;
+        return cache == null ? null : cache.stats();
+    }
+
+    private record Key(Object message, String locale, boolean lenient) {
+    }
+
+    private RenderedMessageCache() {
+    }
+}
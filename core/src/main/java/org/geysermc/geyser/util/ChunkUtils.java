@@ -28,6 +28,9 @@ package org.geysermc.geyser.util;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import com.github.steveice10.mc.protocol.data.game.level.block.BlockChangeEntry;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntLists;
 import lombok.experimental.UtilityClass;
 import org.cloudburstmc.math.GenericMath;
@@ -37,6 +40,7 @@ import org.cloudburstmc.protocol.bedrock.data.definitions.BlockDefinition;
 import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
 import org.cloudburstmc.protocol.bedrock.packet.NetworkChunkPublisherUpdatePacket;
 import org.cloudburstmc.protocol.bedrock.packet.UpdateBlockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.UpdateSubChunkBlocksPacket;
 import org.geysermc.geyser.entity.type.ItemFrameEntity;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.JavaDimension;
@@ -55,6 +59,22 @@ import static org.geysermc.geyser.level.block.BlockStateValues.JAVA_AIR_ID;
 @UtilityClass
 public class ChunkUtils {
 
+    /**
+     * The update flags of a bulk block change; equal to {@link UpdateBlockPacket.Flag#NEIGHBORS} and
+     * {@link UpdateBlockPacket.Flag#NETWORK} combined.
+     */
+    private static final int BULK_UPDATE_FLAGS = 0b11;
+
+    private static final int FLAG_SKULL = 1;
+    private static final int FLAG_MOVING_PISTON = 1 << 1;
+    private static final int FLAG_LECTERN = 1 << 2;
+    private static final int FLAG_BEDROCK_ONLY = 1 << 3;
+    private static final int FLAG_WATERLOGGED = 1 << 4;
+    /**
+     * Not a property of the block state: set for air replacing an item frame, which only refreshes the item frame.
+     */
+    private static final int FLAG_ITEM_FRAME = 1 << 5;
+
     public static final byte[] EMPTY_BIOME_DATA;
 
     public static final BlockStorage[] EMPTY_BLOCK_STORAGE;
@@ -217,6 +237,132 @@ public class ChunkUtils {
         }
     }
 
+    /**
+     * Sends many block updates inside one chunk section to the Bedrock client as a single packet, and adds them
+     * to the cache. Side effects such as skulls, lecterns and Bedrock-only block entities are only checked for
+     * the block states that can have them.
+     *
+     * @param session the Bedrock session to send/register the blocks to
+     * @param chunkX the X coordinate of the chunk section
+     * @param chunkY the Y coordinate of the chunk section
+     * @param chunkZ the Z coordinate of the chunk section
+     * @param entries the changed blocks, all inside this chunk section
+     */
+    public static void updateBlocks(GeyserSession session, int chunkX, int chunkY, int chunkZ, BlockChangeEntry[] entries) {
+        if (!session.getBlockMappings().getExtendedCollisionBoxes().isEmpty()) {
+            // Extended collision boxes can spill into the neighbouring section; keep the per-block logic
+            for (BlockChangeEntry entry : entries) {
+                updateBlock(session, entry.getBlock(), entry.getPosition());
+            }
+            return;
+        }
+
+        boolean checkItemFrames = !session.getItemFrameCache().isEmpty();
+        boolean checkSkulls = session.getSkullCache().hasSkulls(chunkX, chunkZ);
+        boolean checkLecterns = session.getLecternCache() != null && !session.getLecternCache().isEmpty();
+
+        BlockDefinition water = session.getBlockMappings().getBedrockWater();
+        BlockDefinition air = session.getBlockMappings().getBedrockAir();
+
+        UpdateSubChunkBlocksPacket updatePacket = new UpdateSubChunkBlocksPacket();
+        updatePacket.setChunkX(chunkX);
+        updatePacket.setChunkY(chunkY);
+        updatePacket.setChunkZ(chunkZ);
+
+        // Most large edits only consist of a few different block states, so only look up their properties once
+        Int2IntMap stateFlags = new Int2IntOpenHashMap();
+        stateFlags.defaultReturnValue(-1);
+        int[] flags = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            BlockChangeEntry entry = entries[i];
+            int blockState = entry.getBlock();
+            Vector3i position = entry.getPosition();
+            int blockFlags = stateFlags.get(blockState);
+            if (blockFlags == -1) {
+                blockFlags = sideEffectFlags(blockState);
+                stateFlags.put(blockState, blockFlags);
+            }
+            flags[i] = blockFlags;
+
+            if (checkItemFrames) {
+                ItemFrameEntity itemFrameEntity = ItemFrameEntity.getItemFrameEntity(session, position);
+                if (itemFrameEntity != null && blockState == JAVA_AIR_ID) {
+                    itemFrameEntity.updateBlock(true);
+                    flags[i] |= FLAG_ITEM_FRAME;
+                    continue;
+                }
+            }
+
+            BlockDefinition definition = session.getBlockMappings().getBedrockBlock(blockState);
+            if ((blockFlags & FLAG_SKULL) != 0) {
+                if (BlockStateValues.getSkullVariant(blockState) == 3) {
+                    SkullCache.Skull skull = session.getSkullCache().updateSkull(position, blockState);
+                    if (skull != null && skull.getBlockDefinition() != null) {
+                        definition = skull.getBlockDefinition();
+                    }
+                }
+            } else if (checkSkulls) {
+                session.getSkullCache().removeSkull(position);
+            }
+
+            if ((blockFlags & FLAG_MOVING_PISTON) == 0) {
+                updatePacket.getStandardBlocks().add(new org.cloudburstmc.protocol.bedrock.data.BlockChangeEntry(position, definition,
+                        BULK_UPDATE_FLAGS, -1, org.cloudburstmc.protocol.bedrock.data.BlockChangeEntry.MessageType.NONE));
+                updatePacket.getExtraBlocks().add(new org.cloudburstmc.protocol.bedrock.data.BlockChangeEntry(position,
+                        (blockFlags & FLAG_WATERLOGGED) != 0 ? water : air,
+                        BULK_UPDATE_FLAGS, -1, org.cloudburstmc.protocol.bedrock.data.BlockChangeEntry.MessageType.NONE));
+            }
+        }
+
+        if (!updatePacket.getStandardBlocks().isEmpty()) {
+            session.sendUpstreamPacket(updatePacket);
+        }
+
+        // Block entities are sent after the blocks they belong to exist on the client
+        for (int i = 0; i < entries.length; i++) {
+            BlockChangeEntry entry = entries[i];
+            int blockState = entry.getBlock();
+            Vector3i position = entry.getPosition();
+            // Like updateBlock, skip everything but the cache for an item frame that stays
+            boolean itemFrame = (flags[i] & FLAG_ITEM_FRAME) != 0;
+            if (!itemFrame && (checkLecterns || (flags[i] & FLAG_LECTERN) != 0)) {
+                BlockStateValues.getLecternBookStates().handleBlockChange(session, blockState, position);
+            }
+            if (!itemFrame && (flags[i] & FLAG_BEDROCK_ONLY) != 0) {
+                for (BedrockOnlyBlockEntity bedrockOnlyBlockEntity : BlockEntityUtils.BEDROCK_ONLY_BLOCK_ENTITIES) {
+                    if (bedrockOnlyBlockEntity.isBlock(blockState)) {
+                        bedrockOnlyBlockEntity.updateBlock(session, blockState, position);
+                        break;
+                    }
+                }
+            }
+            session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
+        }
+    }
+
+    private static int sideEffectFlags(int blockState) {
+        int flags = 0;
+        if (BlockStateValues.getSkullVariant(blockState) != -1) {
+            flags |= FLAG_SKULL;
+        }
+        if (BlockStateValues.isMovingPiston(blockState)) {
+            flags |= FLAG_MOVING_PISTON;
+        }
+        if (BlockStateValues.getLecternBookStates().containsKey(blockState)) {
+            flags |= FLAG_LECTERN;
+        }
+        for (BedrockOnlyBlockEntity bedrockOnlyBlockEntity : BlockEntityUtils.BEDROCK_ONLY_BLOCK_ENTITIES) {
+            if (bedrockOnlyBlockEntity.isBlock(blockState)) {
+                flags |= FLAG_BEDROCK_ONLY;
+                break;
+            }
+        }
+        if (BlockRegistries.WATERLOGGED.get().get(blockState)) {
+            flags |= FLAG_WATERLOGGED;
+        }
+        return flags;
+    }
+
     public static void sendEmptyChunk(GeyserSession session, int chunkX, int chunkZ, boolean forceUpdate) {
         BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
         int bedrockSubChunkCount = bedrockDimension.height() >> 4;
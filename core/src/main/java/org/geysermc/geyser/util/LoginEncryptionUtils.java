@@ -58,64 +58,110 @@ public class LoginEncryptionUtils {
     private static boolean HAS_SENT_ENCRYPTION_MESSAGE = false;
 
     public static void encryptPlayerConnection(GeyserSession session, LoginPacket loginPacket) {
-        encryptConnectionWithCert(session, loginPacket.getExtra(), loginPacket.getChain());
+        PreparedLogin login;
+        try {
+            login = prepareLogin(session.getGeyser(), loginPacket);
+        } catch (Exception ex) {
+            session.disconnect("disconnectionScreen.internalError.cantConnect");
+            throw new RuntimeException("Unable to complete login", ex);
+        }
+        applyLogin(session, login);
     }
 
-    private static void encryptConnectionWithCert(GeyserSession session, String clientData, List<String> certChainData) {
-        try {
-            GeyserImpl geyser = session.getGeyser();
+    /**
+     * Validates the login and derives the encryption key for the connection. This is the expensive part of a login,
+     * and does not touch the session, so it can run on any thread.
+     *
+     * @throws Exception if the login is invalid
+     */
+    public static PreparedLogin prepareLogin(GeyserImpl geyser, LoginPacket loginPacket) throws Exception {
+        String clientData = loginPacket.getExtra();
+        List<String> certChainData = loginPacket.getChain();
 
-            ChainValidationResult result = EncryptionUtils.validateChain(certChainData);
+        ChainValidationResult result = EncryptionUtils.validateChain(certChainData);
 
-            geyser.getLogger().debug(String.format("Is player data signed? %s", result.signed()));
+        geyser.getLogger().debug(String.format("Is player data signed? %s", result.signed()));
 
-            if (!result.signed() && !session.getGeyser().getConfig().isEnableProxyConnections()) {
-                session.disconnect(GeyserLocale.getLocaleStringLog("geyser.network.remote.invalid_xbox_account"));
-                return;
-            }
+        if (!result.signed() && !geyser.getConfig().isEnableProxyConnections()) {
+            return PreparedLogin.REJECTED;
+        }
 
-            IdentityData extraData = result.identityClaims().extraData;
-            session.setAuthenticationData(new AuthData(extraData.displayName, extraData.identity, extraData.xuid));
-            session.setCertChainData(certChainData);
+        IdentityData extraData = result.identityClaims().extraData;
+        AuthData authData = new AuthData(extraData.displayName, extraData.identity, extraData.xuid);
 
-            PublicKey identityPublicKey = result.identityClaims().parsedIdentityPublicKey();
+        PublicKey identityPublicKey = result.identityClaims().parsedIdentityPublicKey();
 
-            byte[] clientDataPayload = EncryptionUtils.verifyClientData(clientData, identityPublicKey);
-            if (clientDataPayload == null) {
-                throw new IllegalStateException("Client data isn't signed by the given chain data");
-            }
+        byte[] clientDataPayload = EncryptionUtils.verifyClientData(clientData, identityPublicKey);
+        if (clientDataPayload == null) {
+            throw new IllegalStateException("Client data isn't signed by the given chain data");
+        }
 
-            JsonNode clientDataJson = JSON_MAPPER.readTree(clientDataPayload);
-            BedrockClientData data = JSON_MAPPER.convertValue(clientDataJson, BedrockClientData.class);
-            data.setOriginalString(clientData);
-            session.setClientData(data);
-
-            try {
-                startEncryptionHandshake(session, identityPublicKey);
-            } catch (Throwable e) {
-                // An error can be thrown on older Java 8 versions about an invalid key
-                if (geyser.getConfig().isDebugMode()) {
-                    e.printStackTrace();
-                }
+        JsonNode clientDataJson = JSON_MAPPER.readTree(clientDataPayload);
+        BedrockClientData data = JSON_MAPPER.convertValue(clientDataJson, BedrockClientData.class);
+        data.setOriginalString(clientData);
 
-                sendEncryptionFailedMessage(geyser);
+        ServerToClientHandshakePacket handshake = null;
+        SecretKey encryptionKey = null;
+        try {
+            KeyPair serverKeyPair = EncryptionUtils.createKeyPair();
+            byte[] token = EncryptionUtils.generateRandomToken();
+
+            handshake = new ServerToClientHandshakePacket();
+            handshake.setJwt(EncryptionUtils.createHandshakeJwt(serverKeyPair, token));
+
+            encryptionKey = EncryptionUtils.getSecretKey(serverKeyPair.getPrivate(), identityPublicKey, token);
+        } catch (Throwable e) {
+            // An error can be thrown on older Java 8 versions about an invalid key
+            if (geyser.getConfig().isDebugMode()) {
+                e.printStackTrace();
             }
-        } catch (Exception ex) {
-            session.disconnect("disconnectionScreen.internalError.cantConnect");
-            throw new RuntimeException("Unable to complete login", ex);
         }
+
+        return new PreparedLogin(true, authData, certChainData, data, handshake, encryptionKey);
     }
 
-    private static void startEncryptionHandshake(GeyserSession session, PublicKey key) throws Exception {
-        KeyPair serverKeyPair = EncryptionUtils.createKeyPair();
-        byte[] token = EncryptionUtils.generateRandomToken();
+    /**
+     * Applies a prepared login to the session and starts encrypting the connection.
+     * Must be called on the thread the session's packets are handled on.
+     */
+    public static void applyLogin(GeyserSession session, PreparedLogin login) {
+        GeyserImpl geyser = session.getGeyser();
+        if (!login.accepted()) {
+            session.disconnect(GeyserLocale.getLocaleStringLog("geyser.network.remote.invalid_xbox_account"));
+            return;
+        }
+
+        session.setAuthenticationData(login.authData());
+        session.setCertChainData(login.certChainData());
+        session.setClientData(login.clientData());
 
-        ServerToClientHandshakePacket packet = new ServerToClientHandshakePacket();
-        packet.setJwt(EncryptionUtils.createHandshakeJwt(serverKeyPair, token));
-        session.sendUpstreamPacketImmediately(packet);
+        if (login.handshake() == null || login.encryptionKey() == null) {
+            sendEncryptionFailedMessage(geyser);
+            return;
+        }
 
-        SecretKey encryptionKey = EncryptionUtils.getSecretKey(serverKeyPair.getPrivate(), key, token);
-        session.getUpstream().getSession().enableEncryption(encryptionKey);
+        try {
+            session.sendUpstreamPacketImmediately(login.handshake());
+            session.getUpstream().getSession().enableEncryption(login.encryptionKey());
+        } catch (Throwable e) {
+            if (geyser.getConfig().isDebugMode()) {
+                e.printStackTrace();
+            }
+
+            sendEncryptionFailedMessage(geyser);
+        }
+    }
+
+    /**
+     * The result of validating a login.
+     *
+     * @param accepted false if the login is not signed by Xbox Live, and proxy connections are not allowed
+     * @param handshake the handshake to send, or null if encryption could not be set up
+     * @param encryptionKey the key to encrypt the connection with, or null if encryption could not be set up
+     */
+    public record PreparedLogin(boolean accepted, AuthData authData, List<String> certChainData, BedrockClientData clientData,
+                                ServerToClientHandshakePacket handshake, SecretKey encryptionKey) {
+        private static final PreparedLogin REJECTED = new PreparedLogin(false, null, null, null, null, null);
     }
 
     private static void sendEncryptionFailedMessage(GeyserImpl geyser) {
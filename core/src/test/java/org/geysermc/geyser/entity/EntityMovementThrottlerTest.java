@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.entity;
+
+import org.cloudburstmc.math.vector.Vector3f;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityAbsolutePacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityDeltaPacket;
+import org.geysermc.geyser.entity.type.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityMovementThrottlerTest {
+    private static final EntityDefinition<Entity> DEFINITION = EntityDefinition.builder(Entity::new)
+            .heightAndWidth(1f)
+            .build(false);
+
+    private final List<BedrockPacket> sent = new ArrayList<>();
+    private Entity player;
+    private Entity entity;
+    private EntityMovementThrottler throttler;
+
+    @BeforeEach
+    public void setup() {
+        sent.clear();
+        player = entity(1);
+        entity = entity(2);
+        throttler = new EntityMovementThrottler(() -> player, sent::add, 64, 128);
+    }
+
+    @Test
+    public void testMergesUntilTick() {
+        assertTrue(throttler.queue(entity, delta(MoveEntityDeltaPacket.Flag.HAS_X, 1)));
+        assertTrue(throttler.queue(entity, delta(MoveEntityDeltaPacket.Flag.HAS_Y, 2)));
+        assertTrue(sent.isEmpty());
+
+        throttler.tick();
+        assertEquals(1, sent.size());
+        MoveEntityDeltaPacket packet = (MoveEntityDeltaPacket) sent.get(0);
+        assertTrue(packet.getFlags().contains(MoveEntityDeltaPacket.Flag.HAS_X));
+        assertTrue(packet.getFlags().contains(MoveEntityDeltaPacket.Flag.HAS_Y));
+        assertEquals(1, packet.getX());
+        assertEquals(2, packet.getY());
+
+        throttler.tick();
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testFlushBeforeDirectSend() {
+        MoveEntityAbsolutePacket queued = absolute(1);
+        assertTrue(throttler.queue(entity, queued));
+
+        // What an entity does before sending a movement packet itself
+        throttler.flush(entity);
+        assertEquals(List.of(queued), sent);
+
+        // The held back move must not be sent again after the direct move
+        throttler.tick();
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testExemptSendsHeldBackMoveFirst() {
+        MoveEntityAbsolutePacket queued = absolute(1);
+        assertTrue(throttler.queue(entity, queued));
+
+        // The player mounts the entity, so its movement is no longer held back
+        player.setVehicle(entity);
+        assertFalse(throttler.queue(entity, absolute(2)));
+        assertEquals(1, sent.size());
+        assertSame(queued, sent.get(0));
+
+        throttler.tick();
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertTrue(throttler.queue(entity, absolute(1)));
+        throttler.remove(entity);
+        throttler.flush(entity);
+        throttler.tick();
+        assertTrue(sent.isEmpty());
+        assertEquals(1, throttler.suppressedMoves());
+    }
+
+    private MoveEntityDeltaPacket delta(MoveEntityDeltaPacket.Flag flag, float value) {
+        MoveEntityDeltaPacket packet = new MoveEntityDeltaPacket();
+        packet.setRuntimeEntityId(entity.getGeyserId());
+        packet.getFlags().add(flag);
+        switch (flag) {
+            case HAS_X -> packet.setX(value);
+            case HAS_Y -> packet.setY(value);
+            default -> throw new IllegalArgumentException();
+        }
+        return packet;
+    }
+
+    private MoveEntityAbsolutePacket absolute(float x) {
+        MoveEntityAbsolutePacket packet = new MoveEntityAbsolutePacket();
+        packet.setRuntimeEntityId(entity.getGeyserId());
+        packet.setPosition(Vector3f.from(x, 0, 0));
+        packet.setRotation(Vector3f.ZERO);
+        return packet;
+    }
+
+    private static Entity entity(long geyserId) {
+        Entity entity = DEFINITION.factory().create(null, (int) geyserId, geyserId, UUID.randomUUID(), DEFINITION, Vector3f.ZERO, Vector3f.ZERO, 0, 0, 0);
+        entity.setValid(true);
+        return entity;
+    }
+}
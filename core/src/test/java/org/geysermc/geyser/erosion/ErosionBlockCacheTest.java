@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.erosion;
+
+import org.geysermc.erosion.util.BlockPositionIterator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ErosionBlockCacheTest {
+
+    @Test
+    public void testKeys() {
+        int[][] positions = {{0, 0, 0}, {-1, -64, -1}, {30_000_000, 319, -30_000_000}, {-17, 100, 33}};
+        for (int[] position : positions) {
+            long key = ErosionBlockCache.key(position[0], position[1], position[2]);
+            Assertions.assertEquals(position[0], ErosionBlockCache.keyX(key));
+            Assertions.assertEquals(position[2], ErosionBlockCache.keyZ(key));
+        }
+    }
+
+    @Test
+    public void testBatchAndInvalidation() {
+        ErosionBlockCache cache = new ErosionBlockCache();
+        BlockPositionIterator iter = BlockPositionIterator.fromMinMax(14, 60, -2, 17, 62, 1);
+        Assertions.assertNull(cache.getAll(iter));
+
+        int[] blocks = new int[iter.getMaxIterations()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = i + 1;
+        }
+        cache.putLookups(iter, blocks, cache.generation());
+        Assertions.assertArrayEquals(blocks, cache.getAll(iter));
+        Assertions.assertEquals(blocks[0], cache.get(14, 60, -2));
+
+        cache.put(16, 61, 0, 500);
+        Assertions.assertEquals(500, cache.get(16, 61, 0));
+
+        // Chunk 0, -1 covers x 0 to 15 and z -16 to -1
+        cache.invalidateChunk(0, -1);
+        Assertions.assertEquals(ErosionBlockCache.MISSING, cache.get(14, 60, -2));
+        Assertions.assertEquals(ErosionBlockCache.MISSING, cache.get(15, 62, -1));
+        Assertions.assertNotEquals(ErosionBlockCache.MISSING, cache.get(14, 60, 0));
+        Assertions.assertNotEquals(ErosionBlockCache.MISSING, cache.get(16, 60, -2));
+        Assertions.assertNull(cache.getAll(iter));
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLookupRacingUpdate() {
+        ErosionBlockCache cache = new ErosionBlockCache();
+        long generation = cache.generation();
+
+        // The Java server changes the block while it is being looked up
+        cache.put(1, 64, 1, 10);
+        cache.putLookup(1, 64, 1, 20, generation);
+        Assertions.assertEquals(10, cache.get(1, 64, 1));
+
+        // Other positions are not affected
+        cache.putLookup(2, 64, 1, 30, generation);
+        Assertions.assertEquals(30, cache.get(2, 64, 1));
+
+        // A lookup started after the change is stored
+        cache.putLookup(1, 64, 1, 40, cache.generation());
+        Assertions.assertEquals(40, cache.get(1, 64, 1));
+    }
+
+    @Test
+    public void testLookupRacingInvalidation() {
+        ErosionBlockCache cache = new ErosionBlockCache();
+        BlockPositionIterator iter = BlockPositionIterator.fromMinMax(14, 60, 0, 17, 60, 0);
+        int[] blocks = {1, 2, 3, 4};
+        long generation = cache.generation();
+
+        // The chunk is sent again while the batch is being looked up
+        cache.invalidateChunk(0, 0);
+        cache.put(17, 60, 0, 100);
+        cache.putLookups(iter, blocks, generation);
+        Assertions.assertEquals(ErosionBlockCache.MISSING, cache.get(14, 60, 0));
+        Assertions.assertEquals(ErosionBlockCache.MISSING, cache.get(15, 60, 0));
+        Assertions.assertEquals(3, cache.get(16, 60, 0));
+        Assertions.assertEquals(100, cache.get(17, 60, 0));
+
+        // Nothing looked up before the cache was cleared is stored
+        generation = cache.generation();
+        cache.clear();
+        cache.putLookup(14, 60, 0, 1, generation);
+        Assertions.assertEquals(ErosionBlockCache.MISSING, cache.get(14, 60, 0));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk.bitarray;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class SectionTranscoderTest {
+    private final int[] javaBitsPerEntry = new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 15};
+
+    @Test
+    public void testUnpack() {
+        Random random = new Random(0);
+        for (int bits : javaBitsPerEntry) {
+            int[] values = randomValues(random, bits);
+            int[] unpacked = new int[SectionTranscoder.SECTION_SIZE];
+            SectionTranscoder.unpack(pack(values, bits), bits, unpacked);
+            Assertions.assertArrayEquals(values, unpacked, "Unpacked values differ for " + bits + " bits per entry");
+        }
+    }
+
+    @Test
+    public void testTranscode() {
+        Random random = new Random(0);
+        for (BitArrayVersion version : BitArrayVersion.values()) {
+            if (version == BitArrayVersion.V0) {
+                continue;
+            }
+            int[] values = randomValues(random, Math.min(version.bits, 6));
+            BitSet waterloggedIds = new BitSet();
+            BitSet collisionIds = new BitSet();
+            for (int i = 0; i < 64; i++) {
+                if (random.nextInt(4) == 0) {
+                    waterloggedIds.set(i);
+                }
+                if (random.nextInt(4) == 0) {
+                    collisionIds.set(i);
+                }
+            }
+
+            // The straightforward way of converting a section
+            BitArray expected = version.createArray(SectionTranscoder.SECTION_SIZE);
+            int[] expectedLayer1 = new int[SectionTranscoder.SECTION_SIZE >> 5];
+            long[] expectedMask = new long[SectionTranscoder.SECTION_SIZE >> 6];
+            for (int yzx = 0; yzx < SectionTranscoder.SECTION_SIZE; yzx++) {
+                int xzy = ((yzx & 0xF) << 8) | (yzx & 0xF0) | (yzx >> 8);
+                expected.set(xzy, values[yzx]);
+                if (waterloggedIds.get(values[yzx])) {
+                    expectedLayer1[xzy >> 5] |= 1 << (xzy & 0x1F);
+                }
+                if (collisionIds.get(values[yzx])) {
+                    expectedMask[yzx >> 6] |= 1L << (yzx & 0x3F);
+                }
+            }
+
+            BitArray actual = version.createArray(SectionTranscoder.SECTION_SIZE);
+            int[] layer1 = new int[SectionTranscoder.SECTION_SIZE >> 5];
+            long[] mask = new long[SectionTranscoder.SECTION_SIZE >> 6];
+            SectionTranscoder.transcode(values, actual, waterloggedIds, layer1, collisionIds, mask);
+
+            Assertions.assertArrayEquals(expected.getWords(), actual.getWords(), "Block data differs for " + version);
+            Assertions.assertArrayEquals(expectedLayer1, layer1, "Waterlogged layer differs for " + version);
+            Assertions.assertArrayEquals(expectedMask, mask, "Extended collision mask differs for " + version);
+        }
+    }
+
+    private static int[] randomValues(Random random, int bits) {
+        int[] values = new int[SectionTranscoder.SECTION_SIZE];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = bits == 0 ? 0 : random.nextInt(1 << bits);
+        }
+        return values;
+    }
+
+    /**
+     * Packs values the same way as a Java bit storage, where entries never span two longs
+     */
+    private static long[] pack(int[] values, int bits) {
+        if (bits == 0) {
+            return new long[0];
+        }
+        int valuesPerLong = 64 / bits;
+        long[] data = new long[(values.length + valuesPerLong - 1) / valuesPerLong];
+        for (int i = 0; i < values.length; i++) {
+            data[i / valuesPerLong] |= (long) values[i] << ((i % valuesPerLong) * bits);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.pack;
+
+import io.netty.buffer.ByteBuf;
+import org.geysermc.geyser.api.pack.ResourcePack;
+import org.geysermc.geyser.pack.path.GeyserPathPackCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResourcePackChunkProviderTest {
+    private static final int PACK_SIZE = GeyserResourcePack.CHUNK_SIZE + 100;
+
+    private Path file;
+    private ResourcePack pack;
+
+    @BeforeEach
+    public void createPack() throws Exception {
+        file = Files.createTempFile("geyser-pack", ".mcpack");
+        byte[] data = new byte[PACK_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        Files.write(file, data);
+        pack = new GeyserResourcePack(new GeyserPathPackCodec(file), null, "");
+    }
+
+    @AfterEach
+    public void deletePack() throws Exception {
+        ResourcePackChunkProvider.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        ResourcePackChunkProvider.init(false);
+        testChunks();
+    }
+
+    @Test
+    public void testMapped() throws Exception {
+        ResourcePackChunkProvider.init(true);
+        testChunks();
+    }
+
+    private void testChunks() throws Exception {
+        ByteBuf first = ResourcePackChunkProvider.readChunk(pack, 0);
+        assertEquals(GeyserResourcePack.CHUNK_SIZE, first.readableBytes());
+        assertEquals((byte) 1, first.getByte(1));
+
+        ByteBuf last = ResourcePackChunkProvider.readChunk(pack, 1);
+        assertEquals(100, last.readableBytes());
+        assertEquals((byte) GeyserResourcePack.CHUNK_SIZE, last.getByte(0));
+
+        // Chunks that do not exist are empty instead of failing
+        assertEquals(0, ResourcePackChunkProvider.readChunk(pack, 2).readableBytes());
+        assertEquals(0, ResourcePackChunkProvider.readChunk(pack, Integer.MAX_VALUE).readableBytes());
+        assertEquals(0, ResourcePackChunkProvider.readChunk(pack, -1).readableBytes());
+        assertEquals(0, ResourcePackChunkProvider.readChunk(pack, Integer.MIN_VALUE).readableBytes());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.geyser.session;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import org.cloudburstmc.math.vector.Vector3f;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityAbsolutePacket;
+import org.cloudburstmc.protocol.bedrock.packet.RemoveEntityPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SetEntityMotionPacket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UpstreamPacketCoalescerTest {
+    private EventLoop eventLoop;
+    private List<BedrockPacket> sent;
+    private UpstreamPacketCoalescer coalescer;
+
+    @BeforeEach
+    public void setUp() {
+        eventLoop = new DefaultEventLoop();
+        sent = new ArrayList<>();
+        coalescer = new UpstreamPacketCoalescer(eventLoop, () -> true, sent::add);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        eventLoop.shutdownGracefully();
+    }
+
+    @Test
+    public void testMergesWithinRun() throws Exception {
+        SetEntityMotionPacket first = motion(1, 1);
+        SetEntityMotionPacket other = motion(2, 1);
+        SetEntityMotionPacket last = motion(1, 2);
+        queueAll(first, other, last);
+
+        Assertions.assertEquals(List.of(last, other), sent);
+    }
+
+    @Test
+    public void testKeepsOrderBetweenKinds() throws Exception {
+        SetEntityMotionPacket firstMotion = motion(1, 1);
+        MoveEntityAbsolutePacket move = move(1, 5);
+        SetEntityMotionPacket lastMotion = motion(1, 2);
+        queueAll(firstMotion, move, lastMotion);
+
+        Assertions.assertEquals(List.of(firstMotion, move, lastMotion), sent);
+    }
+
+    @Test
+    public void testKeepsOrderAroundOtherPackets() throws Exception {
+        MoveEntityAbsolutePacket firstMove = move(1, 1);
+        RemoveEntityPacket remove = new RemoveEntityPacket();
+        remove.setUniqueEntityId(2);
+        MoveEntityAbsolutePacket lastMove = move(1, 2);
+        queueAll(firstMove, remove, lastMove);
+
+        Assertions.assertEquals(List.of(firstMove, remove, lastMove), sent);
+    }
+
+    @Test
+    public void testMergesMovementsAfterOtherKind() throws Exception {
+        SetEntityMotionPacket motion = motion(1, 1);
+        MoveEntityAbsolutePacket firstMove = move(1, 1);
+        MoveEntityAbsolutePacket lastMove = move(1, 2);
+        queueAll(motion, firstMove, lastMove);
+
+        Assertions.assertEquals(2, sent.size());
+        Assertions.assertSame(motion, sent.get(0));
+        Assertions.assertEquals(Vector3f.from(2, 0, 0), ((MoveEntityAbsolutePacket) sent.get(1)).getPosition());
+    }
+
+    /**
+     * Queues the packets in one event loop task, and waits until they have been flushed.
+     */
+    private void queueAll(BedrockPacket... packets) throws Exception {
+        eventLoop.submit(() -> {
+            for (BedrockPacket packet : packets) {
+                coalescer.queue(packet);
+            }
+        }).get();
+        // The flush was scheduled by the task above
+        eventLoop.submit(() -> { }).get();
+    }
+
+    private static SetEntityMotionPacket motion(long runtimeEntityId, float x) {
+        SetEntityMotionPacket packet = new SetEntityMotionPacket();
+        packet.setRuntimeEntityId(runtimeEntityId);
+        packet.setMotion(Vector3f.from(x, 0, 0));
+        return packet;
+    }
+
+    private static MoveEntityAbsolutePacket move(long runtimeEntityId, float x) {
+        MoveEntityAbsolutePacket packet = new MoveEntityAbsolutePacket();
+        packet.setRuntimeEntityId(runtimeEntityId);
+        packet.setPosition(Vector3f.from(x, 0, 0));
+        packet.setRotation(Vector3f.ZERO);
+        return packet;
+    }
+}
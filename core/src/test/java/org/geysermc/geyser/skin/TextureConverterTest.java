@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019-2023 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.skin;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class TextureConverterTest {
+    private final int[] imageTypes = new int[] {
+            BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_4BYTE_ABGR,
+            BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_BYTE_INDEXED
+    };
+
+    @Test
+    public void testToRgba() {
+        for (int type : imageTypes) {
+            BufferedImage image = randomImage(type, 64, 32);
+            Assertions.assertArrayEquals(toRgbaPerPixel(image), TextureConverter.toRgba(image), "RGBA differs for image type " + type);
+
+            BufferedImage subimage = image.getSubimage(3, 5, 20, 10);
+            Assertions.assertArrayEquals(toRgbaPerPixel(subimage), TextureConverter.toRgba(subimage), "RGBA differs for subimage of type " + type);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        BufferedImage image = randomImage(BufferedImage.TYPE_INT_ARGB, 128, 128);
+        byte[] rgba = TextureConverter.toRgba(image);
+        BufferedImage converted = TextureConverter.fromRgba(rgba, 128, 128);
+        for (int y = 0; y < 128; y++) {
+            for (int x = 0; x < 128; x++) {
+                Assertions.assertEquals(image.getRGB(x, y), converted.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testScaleByHalf() {
+        BufferedImage image = randomImage(BufferedImage.TYPE_INT_ARGB, 128, 64);
+        BufferedImage scaled = TextureConverter.scale(image, 64, 32);
+        Assertions.assertEquals(64, scaled.getWidth());
+        Assertions.assertEquals(32, scaled.getHeight());
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 64; x++) {
+                int[] pixels = new int[] {
+                        image.getRGB(x * 2, y * 2), image.getRGB(x * 2 + 1, y * 2),
+                        image.getRGB(x * 2, y * 2 + 1), image.getRGB(x * 2 + 1, y * 2 + 1)
+                };
+                int actual = scaled.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int sum = 0;
+                    for (int pixel : pixels) {
+                        sum += (pixel >>> shift) & 0xFF;
+                    }
+                    // Averaged in two steps, so allow rounding differences
+                    Assertions.assertTrue(Math.abs(sum / 4 - ((actual >>> shift) & 0xFF)) <= 1, "Channel differs at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    private static BufferedImage randomImage(int type, int width, int height) {
+        Random random = new Random(type);
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static byte[] toRgbaPerPixel(BufferedImage image) {
+        byte[] rgba = new byte[image.getWidth() * image.getHeight() * 4];
+        int index = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int argb = image.getRGB(x, y);
+                rgba[index++] = (byte) (argb >> 16);
+                rgba[index++] = (byte) (argb >> 8);
+                rgba[index++] = (byte) argb;
+                rgba[index++] = (byte) (argb >>> 24);
+            }
+        }
+        return rgba;
+    }
+}